@@ -0,0 +1,54 @@
+package com.pradera.poc.domain.enumeration;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark of the dispatch of the editor node types by {@link BlockType#fromString(String)}, over the mix of types
+ * of a document.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockTypeBenchmark {
+
+    /**
+     * The types of the nodes of a document: mostly paragraphs, with some headings and chapters.
+     */
+    private final String[] editorTypes = {
+        "heading",
+        "paragraph",
+        "paragraph",
+        "paragraph",
+        "paragraph",
+        "chapter",
+        "paragraph",
+        "paragraph",
+    };
+
+    @Benchmark
+    public void fromString(Blackhole blackhole) {
+        for (String editorType : editorTypes) {
+            blackhole.consume(BlockType.fromString(editorType));
+        }
+    }
+
+    @Benchmark
+    public void toEditorType(Blackhole blackhole) {
+        for (BlockType type : BlockType.values()) {
+            blackhole.consume(type.toEditorType());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.pradera.poc.security.jwt;
+
+import com.pradera.poc.security.AuthoritiesConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * JMH benchmark of the authentication of a request by {@link JWTFilter}: validating then resolving a token, as the filter
+ * used to, against {@link TokenProvider#getValidAuthentication(String)} with a token already verified, and with a new
+ * token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenProviderBenchmark {
+
+    private TokenProvider tokenProvider;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8");
+        tokenProvider = new TokenProvider(jHipsterProperties, new SimpleMeterRegistry());
+        token = createToken("benchmark");
+    }
+
+    @Benchmark
+    public Authentication validateThenGetAuthentication() {
+        return tokenProvider.validateToken(token) ? tokenProvider.getAuthentication(token) : null;
+    }
+
+    @Benchmark
+    public Optional<Authentication> getValidAuthenticationOfAVerifiedToken() {
+        return tokenProvider.getValidAuthentication(token);
+    }
+
+    @Benchmark
+    public Optional<Authentication> getValidAuthenticationOfANewToken(NewToken newToken) {
+        return tokenProvider.getValidAuthentication(newToken.token);
+    }
+
+    /**
+     * A token that was never verified, created outside of the measured time: the timestamps of the per invocation setup
+     * add some noise, negligible against the cost of verifying a token.
+     */
+    @State(Scope.Thread)
+    public static class NewToken {
+
+        private String token;
+
+        private long count;
+
+        @Setup(Level.Invocation)
+        public void setup(TokenProviderBenchmark benchmark) {
+            token = benchmark.createToken("benchmark-" + count++);
+        }
+    }
+
+    private String createToken(String login) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            login,
+            "password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        return tokenProvider.createToken(authentication, false);
+    }
+}
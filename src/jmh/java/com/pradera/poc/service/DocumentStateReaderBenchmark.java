@@ -0,0 +1,55 @@
+package com.pradera.poc.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pradera.poc.service.dto.DocumentNodeDTO;
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark of the parsing of the document states uploaded to {@code FlowResource#uploadDocumentState} by
+ * {@link DocumentStateReader}, without the persistence of the nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentStateReaderBenchmark {
+
+    @Param({ "10", "1000", "10000" })
+    public int nodes;
+
+    private DocumentStateReader documentStateReader;
+
+    private byte[] document;
+
+    @Setup
+    public void setup() {
+        documentStateReader = new DocumentStateReader(new ObjectMapper());
+        document = SyntheticDocuments.document(nodes, LongStream.rangeClosed(1, nodes).boxed().collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        Iterator<DocumentNodeDTO> iterator = documentStateReader.read(new ByteArrayInputStream(document));
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.pradera.poc.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pradera.poc.PraderaApp;
+import com.pradera.poc.config.HibernateStatementCounter;
+import com.pradera.poc.domain.Block;
+import com.pradera.poc.domain.Flow;
+import com.pradera.poc.domain.User;
+import com.pradera.poc.repository.BlockRepository;
+import com.pradera.poc.repository.FlowRepository;
+import com.pradera.poc.repository.UserRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * JMH benchmark of the save and load paths of the document of a flow, against the database of the "jmh" profile: an
+ * in-memory H2 database, or PostgreSQL with the "testcontainers" profile.
+ * <p>
+ * Each benchmark runs in its own fork, with a flow whose document of {@link #nodes} nodes was saved once. Besides the
+ * time, the {@link Statements} counters report the SQL statements prepared by Hibernate, see
+ * {@link HibernateStatementCounter}: divide {@code statements} by {@code calls} for the statements of one call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FlowServiceBenchmark {
+
+    @Param({ "10", "1000", "10000" })
+    public int nodes;
+
+    private ConfigurableApplicationContext context;
+
+    private FlowService flowService;
+
+    private BlockRepository blockRepository;
+
+    private DocumentStateReader documentStateReader;
+
+    private ObjectMapper objectMapper;
+
+    private String login;
+
+    private Long flowId;
+
+    private byte[] savedDocument;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(PraderaApp.class).profiles("jmh").run();
+        flowService = context.getBean(FlowService.class);
+        blockRepository = context.getBean(BlockRepository.class);
+        documentStateReader = context.getBean(DocumentStateReader.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        User user = new User();
+        user.setLogin("benchmark-" + RandomStringUtils.randomAlphabetic(8).toLowerCase());
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setEmail(user.getLogin() + "@localhost");
+        user.setActivated(true);
+        context.getBean(UserRepository.class).save(user);
+        login = user.getLogin();
+        flowId = context.getBean(FlowRepository.class).save(Flow.Builder.aFlow().name("benchmark").user(user).build()).getId();
+
+        save(SyntheticDocuments.document(nodes, null));
+        savedDocument = write();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Save the document as it was loaded, as an autosave without changes does.
+     */
+    @Benchmark
+    public Optional<Flow> saveUnchangedDocument(Statements statements) {
+        return statements.count(() -> save(savedDocument));
+    }
+
+    /**
+     * Save the document with the text of one of its nodes changed, as an autosave while typing does.
+     */
+    @Benchmark
+    public Optional<Flow> saveDocumentWithAChangedNode(EditedDocument editedDocument, Statements statements) {
+        return statements.count(() -> save(editedDocument.document));
+    }
+
+    @Benchmark
+    public byte[] loadDocument(Statements statements) {
+        return statements.count(this::write);
+    }
+
+    @Benchmark
+    public List<Block> findBlocksByFlowId(Statements statements) {
+        return statements.count(() -> blockRepository.findByFlowId(flowId));
+    }
+
+    private Optional<Flow> save(byte[] document) {
+        return flowService.updateDocState(login, flowId, documentStateReader.read(new ByteArrayInputStream(document)));
+    }
+
+    private byte[] write() {
+        try {
+            ByteArrayOutputStream document = new ByteArrayOutputStream();
+            flowService.writeDocState(flowId, document);
+            return document.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The document of the flow as last saved, with the text of one node changed, loaded outside of the measured time.
+     */
+    @State(Scope.Thread)
+    public static class EditedDocument {
+
+        private byte[] document;
+
+        private int edits;
+
+        @Setup(Level.Invocation)
+        public void setup(FlowServiceBenchmark benchmark) throws IOException {
+            JsonNode loaded = benchmark.objectMapper.readTree(benchmark.write());
+            JsonNode node = loaded.get("content").get(edits % benchmark.nodes);
+            ObjectNode text = (ObjectNode) node.get("content").get(0);
+            text.put("text", text.get("text").asText() + " Edit " + edits++ + ".");
+            document = benchmark.objectMapper.writeValueAsBytes(loaded);
+        }
+    }
+
+    /**
+     * Counters of the SQL statements prepared by the benchmarked calls.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Statements {
+
+        public long statements;
+
+        public long calls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            calls = 0;
+        }
+
+        <T> T count(Supplier<T> call) {
+            HibernateStatementCounter.start();
+            try {
+                return call.get();
+            } finally {
+                statements += HibernateStatementCounter.count();
+                calls++;
+                HibernateStatementCounter.stop();
+            }
+        }
+    }
+}
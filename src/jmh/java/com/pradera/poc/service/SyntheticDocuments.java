@@ -0,0 +1,66 @@
+package com.pradera.poc.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.List;
+
+/**
+ * Synthetic editor document states for the benchmarks: a heading every {@value #SECTION_LENGTH} nodes, followed by
+ * paragraphs of a few sentences.
+ */
+final class SyntheticDocuments {
+
+    static final int SECTION_LENGTH = 20;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private SyntheticDocuments() {}
+
+    /**
+     * Build a document state.
+     *
+     * @param nodes the number of top-level nodes.
+     * @param blockIds the block ids of the nodes, or {@code null} for a document that was never saved.
+     * @return the document state, as sent by the editor.
+     */
+    static byte[] document(int nodes, List<Long> blockIds) {
+        ObjectNode document = OBJECT_MAPPER.createObjectNode().put("type", "doc");
+        ArrayNode content = document.putArray("content");
+        for (int i = 0; i < nodes; i++) {
+            ObjectNode node = content.addObject();
+            boolean heading = i % SECTION_LENGTH == 0;
+            node.put("type", heading ? "heading" : "paragraph");
+            ObjectNode attrs = node.putObject("attrs");
+            if (blockIds == null) {
+                attrs.put("blockId", "");
+            } else {
+                attrs.put("blockId", blockIds.get(i));
+            }
+            if (heading) {
+                attrs.put("level", 1);
+            }
+            node.putArray("content").addObject().put("type", "text").put("text", text(i, heading));
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(document);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get the text of a node of a synthetic document.
+     */
+    static String text(int node, boolean heading) {
+        if (heading) {
+            return "Section " + (node / SECTION_LENGTH + 1);
+        }
+        return (
+            "Paragraph " +
+            node +
+            " of the synthetic document. It is long enough to be a typical paragraph of a flow, " +
+            "with a couple of sentences that an autosave sends again and again while the user edits another one."
+        );
+    }
+}
@@ -16,7 +16,7 @@ import tech.jhipster.config.JHipsterConstants;
 /**
  * Aspect for logging execution of service and repository Spring components.
  *
- * By default, it only runs with the "dev" profile.
+ * By default, it only runs with the "dev" profile, which enables {@code application.aspects.logging}.
  */
 @Aspect
 public class LoggingAspect {
@@ -0,0 +1,58 @@
+package com.pradera.poc.aop.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Interceptor timing a random sample of the invocations of the methods it advises.
+ * <p>
+ * The invocations that are not sampled only pay for a random number; the sampled ones are recorded in the
+ * {@value #METRIC_NAME} timer, tagged with the class, the method and the exception thrown, if any. The counts of the
+ * timer are the sampled counts: divide them by the sample rate to estimate the number of invocations.
+ */
+public class SampledTimingInterceptor implements MethodInterceptor {
+
+    public static final String METRIC_NAME = "method.sampled";
+
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    private final double sampleRate;
+
+    /**
+     * @param meterRegistry the registry of the timers, only resolved when an invocation is sampled.
+     * @param sampleRate the probability of an invocation to be timed, between 0 and 1.
+     */
+    public SampledTimingInterceptor(Supplier<MeterRegistry> meterRegistry, double sampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        String exception = "none";
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            Timer
+                .builder(METRIC_NAME)
+                .description("Sampled execution time of the application methods")
+                .tag("class", invocation.getMethod().getDeclaringClass().getName())
+                .tag("method", invocation.getMethod().getName())
+                .tag("exception", exception)
+                .register(meterRegistry.get())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
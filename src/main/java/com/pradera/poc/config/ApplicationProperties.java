@@ -1,6 +1,13 @@
 package com.pradera.poc.config;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
 
 /**
  * Properties specific to Pradera.
@@ -9,4 +16,235 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+@Validated
+public class ApplicationProperties {
+
+    @Valid
+    private final BlockStorage blockStorage = new BlockStorage();
+
+    private final FlowSnapshot flowSnapshot = new FlowSnapshot();
+
+    private final FlowDocument flowDocument = new FlowDocument();
+
+    private final Cache cache = new Cache();
+
+    private final Aspects aspects = new Aspects();
+
+    public BlockStorage getBlockStorage() {
+        return blockStorage;
+    }
+
+    public FlowSnapshot getFlowSnapshot() {
+        return flowSnapshot;
+    }
+
+    public FlowDocument getFlowDocument() {
+        return flowDocument;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Aspects getAspects() {
+        return aspects;
+    }
+
+    public static class BlockStorage {
+
+        private boolean deltaEncoding = false;
+
+        @Min(1)
+        private int keyframeInterval = 16;
+
+        /**
+         * @return whether new revisions of a block are stored as a delta against their parent.
+         */
+        public boolean isDeltaEncoding() {
+            return deltaEncoding;
+        }
+
+        public void setDeltaEncoding(boolean deltaEncoding) {
+            this.deltaEncoding = deltaEncoding;
+        }
+
+        /**
+         * @return the number of revisions between two revisions stored in full, when delta encoding is enabled, at
+         * least {@code 1}.
+         */
+        public int getKeyframeInterval() {
+            return keyframeInterval;
+        }
+
+        public void setKeyframeInterval(int keyframeInterval) {
+            this.keyframeInterval = keyframeInterval;
+        }
+    }
+
+    public static class FlowSnapshot {
+
+        private boolean enabled = true;
+
+        /**
+         * @return whether the document of a flow is written as a {@link com.pradera.poc.domain.FlowSnapshot} when it is
+         * saved, and read from it when it is loaded.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class FlowDocument {
+
+        private DataSize maxCachedSize = DataSize.ofKilobytes(256);
+
+        /**
+         * @return the maximum size of the JSON of a rendered document kept in the cache; only the entity tag of a
+         * larger document is cached, and the document is streamed.
+         */
+        public DataSize getMaxCachedSize() {
+            return maxCachedSize;
+        }
+
+        public void setMaxCachedSize(DataSize maxCachedSize) {
+            this.maxCachedSize = maxCachedSize;
+        }
+    }
+
+    public static class Cache {
+
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        /**
+         * @return the configuration of the cache regions, by cache name; the regions that are not configured use the
+         * {@code jhipster.cache.ehcache} defaults.
+         */
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+    }
+
+    public static class Region {
+
+        private Long heapEntries;
+
+        private DataSize heapSize;
+
+        private DataSize offHeapSize;
+
+        private Duration timeToLive;
+
+        private Duration timeToIdle;
+
+        /**
+         * @return the maximum number of entries on heap, exclusive with {@link #getHeapSize()}.
+         */
+        public Long getHeapEntries() {
+            return heapEntries;
+        }
+
+        public void setHeapEntries(Long heapEntries) {
+            this.heapEntries = heapEntries;
+        }
+
+        /**
+         * @return the maximum size of the entries on heap, exclusive with {@link #getHeapEntries()}.
+         */
+        public DataSize getHeapSize() {
+            return heapSize;
+        }
+
+        public void setHeapSize(DataSize heapSize) {
+            this.heapSize = heapSize;
+        }
+
+        /**
+         * @return the size of the off-heap tier, {@code null} for no off-heap tier.
+         */
+        public DataSize getOffHeapSize() {
+            return offHeapSize;
+        }
+
+        public void setOffHeapSize(DataSize offHeapSize) {
+            this.offHeapSize = offHeapSize;
+        }
+
+        /**
+         * @return the time an entry stays in the cache after being written, exclusive with {@link #getTimeToIdle()}.
+         */
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        /**
+         * @return the time an entry stays in the cache after being last read, exclusive with {@link #getTimeToLive()}.
+         */
+        public Duration getTimeToIdle() {
+            return timeToIdle;
+        }
+
+        public void setTimeToIdle(Duration timeToIdle) {
+            this.timeToIdle = timeToIdle;
+        }
+    }
+
+    public static class Aspects {
+
+        private boolean logging = false;
+
+        private final Timing timing = new Timing();
+
+        /**
+         * @return whether the {@link com.pradera.poc.aop.logging.LoggingAspect} is woven around the repositories,
+         * services and REST controllers.
+         */
+        public boolean isLogging() {
+            return logging;
+        }
+
+        public void setLogging(boolean logging) {
+            this.logging = logging;
+        }
+
+        public Timing getTiming() {
+            return timing;
+        }
+    }
+
+    public static class Timing {
+
+        private double sampleRate = 0;
+
+        private String pointcut = "within(@org.springframework.stereotype.Service *) && within(com.pradera.poc.service..*)";
+
+        /**
+         * @return the probability of an invocation to be timed, {@code 0} to not weave the timing interceptor at all.
+         */
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        /**
+         * @return the AspectJ pointcut expression of the timed methods.
+         */
+        public String getPointcut() {
+            return pointcut;
+        }
+
+        public void setPointcut(String pointcut) {
+            this.pointcut = pointcut;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.pradera.poc.config;
 
 import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.jsr107.Eh107Configuration;
 import org.hibernate.cache.jcache.ConfigSettings;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,9 +28,12 @@ public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final Map<String, ApplicationProperties.Region> regions;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        ehcache = jHipsterProperties.getCache().getEhcache();
+        regions = applicationProperties.getCache().getRegions();
 
         jcacheConfiguration =
             Eh107Configuration.fromEhcacheCacheConfiguration(
@@ -55,7 +64,20 @@ public class CacheConfiguration {
             createCache(cm, com.pradera.poc.domain.Flow.class.getName() + ".blocks");
             createCache(cm, com.pradera.poc.domain.Book.class.getName());
             createCache(cm, com.pradera.poc.domain.FlowBlock.class.getName());
+            createCache(cm, com.pradera.poc.service.BlockService.KEYFRAMES_CACHE);
+            createCache(cm, com.pradera.poc.service.FlowDocumentCache.DOCUMENTS_CACHE);
+            createCache(cm, org.hibernate.cache.spi.RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+            createCache(cm, org.hibernate.cache.spi.RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME);
+            createCache(cm, com.pradera.poc.repository.SliceJpaRepository.criteriaQueryRegion(com.pradera.poc.domain.Block.class));
+            createCache(cm, com.pradera.poc.repository.SliceJpaRepository.criteriaQueryRegion(com.pradera.poc.domain.Book.class));
+            createCache(cm, com.pradera.poc.repository.SliceJpaRepository.criteriaQueryRegion(com.pradera.poc.domain.Flow.class));
+            createCache(cm, com.pradera.poc.repository.SliceJpaRepository.criteriaQueryRegion(com.pradera.poc.domain.FlowBlock.class));
             // jhipster-needle-ehcache-add-entry
+            Set<String> unknownRegions = new HashSet<>(regions.keySet());
+            cm.getCacheNames().forEach(unknownRegions::remove);
+            if (!unknownRegions.isEmpty()) {
+                throw new IllegalStateException("Configuration of unknown cache regions: " + unknownRegions);
+            }
         };
     }
 
@@ -64,10 +86,47 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            ApplicationProperties.Region region = regions.get(cacheName);
+            cm.createCache(cacheName, region == null ? jcacheConfiguration : regionConfiguration(cacheName, region));
+            // hits and misses are exposed as the cache.gets Micrometer metrics
+            cm.enableStatistics(cacheName, true);
         }
     }
 
+    /**
+     * Build the configuration of a region, falling back to the {@code jhipster.cache.ehcache} defaults for what it does not set.
+     * <p>
+     * The heap tier is sized in entries or in bytes, and an off-heap tier keeps the serialized entries out of the garbage
+     * collected heap, which suits the regions of large entities.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> regionConfiguration(
+        String cacheName,
+        ApplicationProperties.Region region
+    ) {
+        if (region.getHeapEntries() != null && region.getHeapSize() != null) {
+            throw new IllegalStateException("Cache region " + cacheName + " sets both heap-entries and heap-size");
+        }
+        if (region.getTimeToLive() != null && region.getTimeToIdle() != null) {
+            throw new IllegalStateException("Cache region " + cacheName + " sets both time-to-live and time-to-idle");
+        }
+        ResourcePoolsBuilder resourcePools = region.getHeapSize() != null
+            ? ResourcePoolsBuilder.newResourcePoolsBuilder().heap(region.getHeapSize().toBytes(), MemoryUnit.B)
+            : ResourcePoolsBuilder
+                .newResourcePoolsBuilder()
+                .heap(region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries(), EntryUnit.ENTRIES);
+        if (region.getOffHeapSize() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeapSize().toBytes(), MemoryUnit.B);
+        }
+        ExpiryPolicy<Object, Object> expiry = region.getTimeToIdle() != null
+            ? ExpiryPolicyBuilder.timeToIdleExpiration(region.getTimeToIdle())
+            : ExpiryPolicyBuilder.timeToLiveExpiration(
+                region.getTimeToLive() != null ? region.getTimeToLive() : Duration.ofSeconds(ehcache.getTimeToLiveSeconds())
+            );
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools).withExpiry(expiry).build()
+        );
+    }
+
     @Autowired(required = false)
     public void setGitProperties(GitProperties gitProperties) {
         this.gitProperties = gitProperties;
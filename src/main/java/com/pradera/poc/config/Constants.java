@@ -11,5 +11,8 @@ public final class Constants {
     public static final String SYSTEM = "system";
     public static final String DEFAULT_LANGUAGE = "en";
 
+    // Must match the "incrementBy" of the "sequence_generator" sequence in the Liquibase changelog
+    public static final int SEQUENCE_GENERATOR_ALLOCATION_SIZE = 1000;
+
     private Constants() {}
 }
@@ -1,8 +1,12 @@
 package com.pradera.poc.config;
 
+import com.pradera.poc.repository.BlockLineageInterceptor;
+import com.pradera.poc.repository.SliceJpaRepository;
 import java.sql.SQLException;
+import org.hibernate.cfg.AvailableSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -14,7 +18,7 @@ import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
 
 @Configuration
-@EnableJpaRepositories("com.pradera.poc.repository")
+@EnableJpaRepositories(value = "com.pradera.poc.repository", repositoryBaseClass = SliceJpaRepository.class)
 @EnableJpaAuditing(auditorAwareRef = "springSecurityAuditorAware")
 @EnableTransactionManagement
 public class DatabaseConfiguration {
@@ -41,6 +45,16 @@ public class DatabaseConfiguration {
         return H2ConfigurationHelper.createServer(port);
     }
 
+    /**
+     * Register the {@link BlockLineageInterceptor}, which sets the lineage of the blocks being inserted.
+     *
+     * @return the customizer of the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer blockLineageInterceptorCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.INTERCEPTOR, new BlockLineageInterceptor());
+    }
+
     private String getValidPortForH2() {
         int port = Integer.parseInt(env.getProperty("server.port"));
         if (port < 10000) {
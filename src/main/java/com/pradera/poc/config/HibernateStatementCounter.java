@@ -0,0 +1,47 @@
+package com.pradera.poc.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate {@link StatementInspector} counting the SQL statements prepared by the current thread, between
+ * {@link #start()} and {@link #stop()}.
+ * <p>
+ * A JDBC batch is prepared once, so its statements are counted once.
+ */
+public class HibernateStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    /**
+     * Start counting the statements prepared by the current thread.
+     */
+    public static void start() {
+        STATEMENTS.set(new int[1]);
+    }
+
+    /**
+     * Get the number of statements prepared by the current thread since {@link #start()}.
+     *
+     * @return the number of statements, 0 when not counting.
+     */
+    public static int count() {
+        int[] statements = STATEMENTS.get();
+        return statements == null ? 0 : statements[0];
+    }
+
+    /**
+     * Stop counting the statements prepared by the current thread.
+     */
+    public static void stop() {
+        STATEMENTS.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] statements = STATEMENTS.get();
+        if (statements != null) {
+            statements[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,40 @@
+package com.pradera.poc.config;
+
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import tech.jhipster.config.JHipsterConstants;
+
+/**
+ * Configuration of the Hibernate statistics: the {@link HibernateStatisticsEndpoint}, and outside of the "prod" profile
+ * the {@link ServerTimingFilter} reporting the statements of each API request.
+ */
+@Configuration
+public class HibernateStatisticsConfiguration {
+
+    @Bean
+    public HibernateStatisticsEndpoint hibernateStatisticsEndpoint(EntityManagerFactory entityManagerFactory) {
+        return new HibernateStatisticsEndpoint(entityManagerFactory);
+    }
+
+    @Bean
+    @Profile("!" + JHipsterConstants.SPRING_PROFILE_PRODUCTION)
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new HibernateStatementCounter());
+    }
+
+    @Bean
+    @Profile("!" + JHipsterConstants.SPRING_PROFILE_PRODUCTION)
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter());
+        registration.addUrlPatterns("/api/*");
+        // before the security filters, so the statements loading the user are counted
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,90 @@
+package com.pradera.poc.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Actuator endpoint exposing the Hibernate {@link Statistics}: the statements, the entity and collection loads, and the
+ * hits, misses and puts of each second level cache region configured by {@link CacheConfiguration}.
+ * <p>
+ * The statistics are only gathered when {@code hibernate.generate_statistics} is set, as in the "dev" profile, or once
+ * enabled through this endpoint.
+ */
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("transactions", statistics.getTransactionCount());
+        result.put("statements", statistics.getPrepareStatementCount());
+        result.put("statementsPerTransaction", ratio(statistics.getPrepareStatementCount(), statistics.getTransactionCount()));
+        result.put("flushes", statistics.getFlushCount());
+        result.put("queries", statistics.getQueryExecutionCount());
+        result.put("queryMaxTime", statistics.getQueryExecutionMaxTime());
+        result.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        result.put("entityLoads", statistics.getEntityLoadCount());
+        result.put("entityFetches", statistics.getEntityFetchCount());
+        result.put("entityInserts", statistics.getEntityInsertCount());
+        result.put("entityUpdates", statistics.getEntityUpdateCount());
+        result.put("entityDeletes", statistics.getEntityDeleteCount());
+        result.put("collectionLoads", statistics.getCollectionLoadCount());
+        result.put("collectionFetches", statistics.getCollectionFetchCount());
+        result.put("secondLevelCache", regionStatistics());
+        return result;
+    }
+
+    /**
+     * Enable or disable the gathering of the statistics.
+     *
+     * @param enabled whether to gather the statistics.
+     */
+    @WriteOperation
+    public void enable(boolean enabled) {
+        statistics.setStatisticsEnabled(enabled);
+    }
+
+    /**
+     * Reset the statistics.
+     */
+    @DeleteOperation
+    public void clear() {
+        statistics.clear();
+    }
+
+    private Map<String, Map<String, Object>> regionStatistics() {
+        Map<String, Map<String, Object>> regions = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                Map<String, Object> counts = new LinkedHashMap<>();
+                counts.put("hits", region.getHitCount());
+                counts.put("misses", region.getMissCount());
+                counts.put("puts", region.getPutCount());
+                counts.put("hitRatio", ratio(region.getHitCount(), region.getHitCount() + region.getMissCount()));
+                regions.put(regionName, counts);
+            }
+        }
+        return regions;
+    }
+
+    private static double ratio(long count, long total) {
+        return total == 0 ? 0 : (double) count / total;
+    }
+}
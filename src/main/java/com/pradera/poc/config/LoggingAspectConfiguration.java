@@ -1,17 +1,41 @@
 package com.pradera.poc.config;
 
 import com.pradera.poc.aop.logging.LoggingAspect;
+import com.pradera.poc.aop.timing.SampledTimingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
-import tech.jhipster.config.JHipsterConstants;
 
+/**
+ * Configuration of the aspects around the application beans.
+ * <p>
+ * The {@link LoggingAspect} is only woven when {@code application.aspects.logging} is enabled, as in the "dev" profile:
+ * otherwise no bean is proxied for it. The {@link SampledTimingInterceptor} is only woven around the methods matching
+ * {@code application.aspects.timing.pointcut}, when {@code application.aspects.timing.sample-rate} is positive.
+ */
 @Configuration
 @EnableAspectJAutoProxy
 public class LoggingAspectConfiguration {
 
     @Bean
-    @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
+    @ConditionalOnProperty(prefix = "application.aspects", name = "logging", havingValue = "true")
     public LoggingAspect loggingAspect(Environment env) {
         return new LoggingAspect(env);
     }
+
+    @Bean
+    @ConditionalOnExpression("${application.aspects.timing.sample-rate:0} > 0")
+    public Advisor sampledTimingAdvisor(ApplicationProperties applicationProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        ApplicationProperties.Timing timing = applicationProperties.getAspects().getTiming();
+        AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+        advisor.setExpression(timing.getPointcut());
+        // the registry is resolved lazily: advisors are created before the registry customizers are registered
+        advisor.setAdvice(new SampledTimingInterceptor(meterRegistry::getObject, timing.getSampleRate()));
+        return advisor;
+    }
 }
@@ -0,0 +1,88 @@
+package com.pradera.poc.config;
+
+import com.pradera.poc.repository.RepositoryInvocationMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.lang.management.ManagementFactory;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Configuration of the application metrics that Spring Boot does not provide.
+ * <p>
+ * The invocations of the repositories are timed by {@link RepositoryInvocationMetrics}, and the hit ratio of each cache
+ * region is exposed as the {@code cache.hit.ratio} gauge. The percentiles histograms and the SLOs of the timers are
+ * configured by the {@code management.metrics.distribution} properties.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        // the registry is resolved lazily: the repositories are created before the registry customizers are registered
+        RepositoryInvocationMetrics listener = new RepositoryInvocationMetrics(meterRegistry::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                            factory -> factory.addInvocationListener(listener)
+                        );
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Expose the ratio of the gets that hit each cache since it was created, read from its JCache statistics MXBean.
+     */
+    @Bean
+    public MeterBinder cacheHitRatioMetrics(javax.cache.CacheManager cacheManager) {
+        return registry -> {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            for (String cacheName : cacheManager.getCacheNames()) {
+                ObjectName objectName = cacheStatisticsObjectName(cacheManager, cacheName);
+                if (mBeanServer.isRegistered(objectName)) {
+                    CacheStatisticsMXBean statistics = JMX.newMXBeanProxy(mBeanServer, objectName, CacheStatisticsMXBean.class);
+                    // the proxy is only referenced by the gauge, which would otherwise hold it weakly
+                    Gauge
+                        .builder("cache.hit.ratio", statistics, s -> s.getCacheHitPercentage() / 100)
+                        .description("Ratio of the gets that hit the cache")
+                        .tag("cache", cacheName)
+                        .strongReference(true)
+                        .register(registry);
+                }
+            }
+        };
+    }
+
+    private static ObjectName cacheStatisticsObjectName(javax.cache.CacheManager cacheManager, String cacheName) {
+        try {
+            return new ObjectName(
+                "javax.cache:type=CacheStatistics,CacheManager=" +
+                sanitize(cacheManager.getURI().toString()) +
+                ",Cache=" +
+                sanitize(cacheName)
+            );
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException("Invalid statistics MXBean name for cache " + cacheName, e);
+        }
+    }
+
+    /**
+     * Replace the characters that are not allowed in the value of an {@link ObjectName} key, as the JCache providers do.
+     */
+    private static String sanitize(String value) {
+        return value.replaceAll("[,:=\n]", ".");
+    }
+}
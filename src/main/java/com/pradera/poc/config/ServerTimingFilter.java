@@ -0,0 +1,55 @@
+package com.pradera.poc.config;
+
+import java.io.IOException;
+import java.util.Locale;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Filter adding a {@value #SERVER_TIMING_HEADER} header to the responses, with the number of SQL statements prepared by
+ * Hibernate while handling the request, see {@link HibernateStatementCounter}, and the time spent until the response is
+ * committed.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        long start = System.nanoTime();
+        HibernateStatementCounter.start();
+        // the header must be added before the body commits the response
+        OnCommittedResponseWrapper timedResponse = new OnCommittedResponseWrapper(response) {
+            @Override
+            protected void onResponseCommitted() {
+                addServerTiming(response, start);
+                disableOnResponseCommitted();
+            }
+        };
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            if (!timedResponse.isCommitted() && !response.containsHeader(SERVER_TIMING_HEADER)) {
+                addServerTiming(response, start);
+            }
+            HibernateStatementCounter.stop();
+        }
+    }
+
+    private static void addServerTiming(HttpServletResponse response, long start) {
+        response.addHeader(
+            SERVER_TIMING_HEADER,
+            String.format(
+                Locale.ROOT,
+                "sql;desc=\"%d statements\", app;dur=%.1f",
+                HibernateStatementCounter.count(),
+                (System.nanoTime() - start) / 1e6
+            )
+        );
+    }
+}
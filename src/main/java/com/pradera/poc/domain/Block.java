@@ -1,6 +1,11 @@
 package com.pradera.poc.domain;
 
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.pradera.poc.config.Constants;
 import com.pradera.poc.domain.enumeration.BlockType;
 import java.io.Serializable;
 import java.time.ZonedDateTime;
@@ -8,6 +13,7 @@ import java.util.HashSet;
 import java.util.Set;
 import javax.persistence.*;
 import javax.validation.constraints.*;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Type;
@@ -22,9 +28,14 @@ public class Block implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Maximum number of characters of the content kept in {@link #getExcerpt()}.
+     */
+    public static final int EXCERPT_LENGTH = 200;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator", allocationSize = Constants.SEQUENCE_GENERATOR_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -32,24 +43,75 @@ public class Block implements Serializable {
     @Column(name = "type", nullable = false)
     private BlockType type;
 
-    @Lob
-    @Type(type = "org.hibernate.type.TextType")
-    @Column(name = "content", nullable = false)
+    /**
+     * Lazily loaded (see gradle/hibernate.gradle), so listing blocks does not read the text of every block. Large
+     * contents are stored compressed, see {@link BlockContentType}. {@code null} for a revision stored as a
+     * {@link #contentDelta}.
+     */
+    @Basic(fetch = FetchType.LAZY)
+    @Type(type = "com.pradera.poc.domain.BlockContentType")
+    @Column(name = "content")
     private String content;
 
+    /**
+     * The content stored as a delta against the content of the {@link #parent}, see
+     * {@link com.pradera.poc.service.BlockDelta}. Loaded with {@link #content}.
+     */
+    @JsonIgnore
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "content_delta")
+    private byte[] contentDelta;
+
+    /**
+     * The content of a revision stored as a delta, once reconstructed by {@link com.pradera.poc.service.BlockService}.
+     */
+    @Transient
+    private String reconstructedContent;
+
+    /**
+     * Number of characters of the content, set with the content so listings do not read the content.
+     */
+    @JsonIgnore
+    @Column(name = "content_length", nullable = false)
+    private Integer contentLength;
+
+    /**
+     * The first {@value #EXCERPT_LENGTH} characters of the content, set with the content so listings do not read the
+     * content.
+     */
+    @JsonIgnore
+    @Column(name = "excerpt", length = EXCERPT_LENGTH, nullable = false)
+    private String excerpt;
+
     @NotNull
     @Column(name = "created_date", nullable = false)
     private ZonedDateTime createdDate;
 
-    @NotNull
+    /**
+     * Computed from the type and the content by {@link com.pradera.poc.service.BlockHasher} whenever they are written,
+     * so a hash sent by a client is ignored.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     @Column(name = "hash", nullable = false)
     private String hash;
 
-    @ManyToOne
+    /**
+     * The first version of this block, following {@link #parent} up: the block itself for a first version.
+     */
+    @Column(name = "root_id", nullable = false)
+    private Long rootId;
+
+    /**
+     * The number of versions before this block, 0 for a first version.
+     */
+    @Column(name = "depth", nullable = false)
+    private Integer depth;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = { "parent", "user", "parentBlocks", "flows" }, allowSetters = true)
     private Block parent;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @NotNull
     private User user;
 
@@ -92,17 +154,94 @@ public class Block implements Serializable {
         this.type = type;
     }
 
+    /**
+     * @return the content, or {@code null} for a revision stored as a delta whose content was not reconstructed, see
+     * {@link com.pradera.poc.service.BlockService#getContent(Block)}.
+     */
+    @JsonIgnore
     public String getContent() {
-        return this.content;
+        return this.content != null ? this.content : this.reconstructedContent;
+    }
+
+    /**
+     * Get the content if it has been loaded, without loading it.
+     * <p>
+     * Used to serialize the block: like the lazy associations handled by the Hibernate5Module, a content that was not
+     * loaded in the transaction is serialized as {@code null}.
+     *
+     * @return the content, or {@code null} if it has not been loaded.
+     */
+    @JsonGetter("content")
+    public String getContentIfLoaded() {
+        return Hibernate.isPropertyInitialized(this, "content") ? getContent() : null;
     }
 
     public Block content(String content) {
-        this.content = content;
+        this.setContent(content);
         return this;
     }
 
+    /**
+     * Set the content, stored in full.
+     *
+     * @param content the content.
+     */
+    @JsonSetter("content")
     public void setContent(String content) {
         this.content = content;
+        this.contentDelta = null;
+        this.reconstructedContent = null;
+        if (content == null) {
+            this.contentLength = null;
+            this.excerpt = null;
+        } else {
+            this.contentLength = content.codePointCount(0, content.length());
+            this.excerpt = content.substring(0, content.offsetByCodePoints(0, Math.min(contentLength, EXCERPT_LENGTH)));
+        }
+    }
+
+    public byte[] getContentDelta() {
+        return this.contentDelta;
+    }
+
+    /**
+     * @return whether the content is stored as a delta against the content of the parent.
+     */
+    @JsonIgnore
+    public boolean isDeltaEncoded() {
+        return this.contentDelta != null;
+    }
+
+    /**
+     * Store the content as a delta against the content of the parent instead of in full.
+     *
+     * @param contentDelta the delta from the content of the parent to the content of this block.
+     * @return this block.
+     */
+    public Block storeContentAsDelta(byte[] contentDelta) {
+        this.reconstructedContent = getContent();
+        this.content = null;
+        this.contentDelta = contentDelta;
+        return this;
+    }
+
+    /**
+     * Set the content of a revision stored as a delta, reconstructed from its parents. It is not written back.
+     *
+     * @param reconstructedContent the content.
+     * @return this block.
+     */
+    public Block reconstructedContent(String reconstructedContent) {
+        this.reconstructedContent = reconstructedContent;
+        return this;
+    }
+
+    public Integer getContentLength() {
+        return this.contentLength;
+    }
+
+    public String getExcerpt() {
+        return this.excerpt;
     }
 
     public ZonedDateTime getCreatedDate() {
@@ -131,6 +270,52 @@ public class Block implements Serializable {
         this.hash = hash;
     }
 
+    public Long getRootId() {
+        return this.rootId;
+    }
+
+    public Block rootId(Long rootId) {
+        this.rootId = rootId;
+        return this;
+    }
+
+    public void setRootId(Long rootId) {
+        this.rootId = rootId;
+    }
+
+    public Integer getDepth() {
+        return this.depth;
+    }
+
+    public Block depth(Integer depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Derive the {@link #rootId} and {@link #depth} of this block from its parent.
+     * <p>
+     * A new first version has no id yet: its {@code rootId} is left {@code null} and assigned its own id on insert,
+     * see {@link com.pradera.poc.repository.BlockLineageInterceptor}.
+     *
+     * @param parent the previous version of this block, {@code null} for a first version.
+     * @return this block.
+     */
+    public Block inheritLineage(Block parent) {
+        if (parent == null) {
+            this.rootId = this.id;
+            this.depth = 0;
+        } else {
+            this.rootId = parent.getRootId();
+            this.depth = parent.getDepth() + 1;
+        }
+        return this;
+    }
+
     public Block getParent() {
         return this.parent;
     }
@@ -244,9 +429,11 @@ public class Block implements Serializable {
         return "Block{" +
             "id=" + getId() +
             ", type='" + getType() + "'" +
-            ", content='" + getContent() + "'" +
+            ", content='" + getContentIfLoaded() + "'" +
             ", createdDate='" + getCreatedDate() + "'" +
             ", hash='" + getHash() + "'" +
+            ", rootId=" + getRootId() +
+            ", depth=" + getDepth() +
             "}";
     }
 
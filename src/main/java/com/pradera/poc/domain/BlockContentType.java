@@ -0,0 +1,202 @@
+package com.pradera.poc.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+/**
+ * Hibernate type of the content of a {@link Block}, stored as bytes: a codec marker followed by the UTF-8 text, Deflate
+ * compressed when the text is at least {@link #COMPRESSION_THRESHOLD} bytes long and compressing it makes it smaller.
+ * <p>
+ * The content is disassembled to its encoded bytes, so the second level cache holds the compressed content too. The
+ * compressed bytes read or written are kept while the content is in use, so caching a content does not compress it
+ * again: the encoding of a content is deterministic, so they are looked up by content.
+ */
+public class BlockContentType implements UserType {
+
+    static final byte UTF8 = 0;
+
+    static final byte DEFLATED = 1;
+
+    static final int COMPRESSION_THRESHOLD = 512;
+
+    private static final int[] SQL_TYPES = { Types.VARBINARY };
+
+    /**
+     * The compressed bytes of the contents in use, dropped with the contents.
+     */
+    private static final Map<String, byte[]> DEFLATED_COLUMNS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Encode a content.
+     *
+     * @param content the content of a block.
+     * @return the stored bytes.
+     */
+    public static byte[] encode(String content) {
+        byte[] text = content.getBytes(StandardCharsets.UTF_8);
+        if (text.length >= COMPRESSION_THRESHOLD) {
+            byte[] deflated = deflate(text);
+            if (deflated.length < text.length) {
+                return deflated;
+            }
+        }
+        byte[] column = new byte[text.length + 1];
+        column[0] = UTF8;
+        System.arraycopy(text, 0, column, 1, text.length);
+        return column;
+    }
+
+    /**
+     * Decode a content.
+     *
+     * @param column the stored bytes, written by {@link #encode(String)}.
+     * @return the content of the block.
+     * @throws IllegalArgumentException if the bytes are not a valid encoded content.
+     */
+    public static String decode(byte[] column) {
+        if (column.length == 0) {
+            throw new IllegalArgumentException("Block content without codec marker");
+        }
+        switch (column[0]) {
+            case UTF8:
+                return new String(column, 1, column.length - 1, StandardCharsets.UTF_8);
+            case DEFLATED:
+                return new String(inflate(column), StandardCharsets.UTF_8);
+            default:
+                throw new IllegalArgumentException("Unknown block content codec: " + column[0]);
+        }
+    }
+
+    @Override
+    public int[] sqlTypes() {
+        return SQL_TYPES;
+    }
+
+    @Override
+    public Class<String> returnedClass() {
+        return String.class;
+    }
+
+    @Override
+    public boolean equals(Object x, Object y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Object x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner)
+        throws SQLException {
+        byte[] column = rs.getBytes(names[0]);
+        return column == null ? null : decodeAndKeep(column);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session)
+        throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.VARBINARY);
+        } else {
+            st.setBytes(index, encodeAndKeep((String) value));
+        }
+    }
+
+    @Override
+    public Object deepCopy(Object value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Object value) {
+        return value == null ? null : encodeAndKeep((String) value);
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) {
+        return cached == null ? null : decodeAndKeep((byte[]) cached);
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) {
+        return original;
+    }
+
+    private static String decodeAndKeep(byte[] column) {
+        String content = decode(column);
+        if (column[0] == DEFLATED) {
+            DEFLATED_COLUMNS.put(content, column);
+        }
+        return content;
+    }
+
+    private static byte[] encodeAndKeep(String content) {
+        byte[] column = DEFLATED_COLUMNS.get(content);
+        if (column == null) {
+            column = encode(content);
+            if (column[0] == DEFLATED) {
+                DEFLATED_COLUMNS.put(content, column);
+            }
+        }
+        return column;
+    }
+
+    private static byte[] deflate(byte[] text) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(text);
+            deflater.finish();
+            ByteArrayOutputStream column = new ByteArrayOutputStream(text.length / 2);
+            column.write(DEFLATED);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                column.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return column.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] column) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(column, 1, column.length - 1);
+            ByteArrayOutputStream text = new ByteArrayOutputStream(column.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated block content");
+                }
+                text.write(buffer, 0, inflated);
+            }
+            return text.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupted block content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
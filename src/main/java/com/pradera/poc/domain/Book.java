@@ -1,5 +1,6 @@
 package com.pradera.poc.domain;
 
+import com.pradera.poc.config.Constants;
 import java.io.Serializable;
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -18,7 +19,7 @@ public class Book implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator", allocationSize = Constants.SEQUENCE_GENERATOR_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
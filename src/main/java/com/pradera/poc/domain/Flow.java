@@ -1,6 +1,7 @@
 package com.pradera.poc.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.pradera.poc.config.Constants;
 import com.pradera.poc.domain.enumeration.BlockType;
 import java.io.Serializable;
 import java.util.HashSet;
@@ -22,7 +23,7 @@ public class Flow implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator", allocationSize = Constants.SEQUENCE_GENERATOR_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -114,7 +115,7 @@ public class Flow implements Serializable {
 
     public Flow addBlocks(FlowBlock flowBlock) {
         this.blocks.add(flowBlock);
-        flowBlock.setBlockOrder(Long.valueOf(this.blocks.size()));
+        flowBlock.setBlockOrder(this.blocks.size() * FlowBlock.BLOCK_ORDER_GAP);
         flowBlock.setFlow(this);
         return this;
     }
@@ -1,6 +1,7 @@
 package com.pradera.poc.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.pradera.poc.config.Constants;
 import java.io.Serializable;
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -17,9 +18,15 @@ public class FlowBlock implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Distance between the {@code blockOrder} of consecutive blocks when a flow is (re)numbered,
+     * leaving room to insert or move blocks by taking the midpoint of their neighbours.
+     */
+    public static final long BLOCK_ORDER_GAP = 1L << 16;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator", allocationSize = Constants.SEQUENCE_GENERATOR_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -0,0 +1,74 @@
+package com.pradera.poc.domain;
+
+import java.io.Serializable;
+import javax.persistence.*;
+
+/**
+ * A FlowSnapshot: the document of a flow as written by its last save, encoded by
+ * {@link com.pradera.poc.service.FlowSnapshotCodec}.
+ */
+@Entity
+@Table(name = "flow_snapshot")
+public class FlowSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "flow_id")
+    private Long flowId;
+
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+
+    public Long getFlowId() {
+        return flowId;
+    }
+
+    public void setFlowId(Long flowId) {
+        this.flowId = flowId;
+    }
+
+    public FlowSnapshot flowId(Long flowId) {
+        this.flowId = flowId;
+        return this;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public FlowSnapshot data(byte[] data) {
+        this.data = data;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FlowSnapshot)) {
+            return false;
+        }
+        return flowId != null && flowId.equals(((FlowSnapshot) o).flowId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FlowSnapshot{" +
+            "flowId=" + getFlowId() +
+            ", data=" + (data == null ? 0 : data.length) + " bytes" +
+            "}";
+    }
+}
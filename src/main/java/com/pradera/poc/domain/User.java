@@ -29,7 +29,7 @@ public class User extends AbstractAuditingEntity implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator", allocationSize = Constants.SEQUENCE_GENERATOR_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
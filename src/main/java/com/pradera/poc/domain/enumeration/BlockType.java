@@ -17,7 +17,7 @@ public enum BlockType {
             case "chapter":
                 return CHAPTER;
         }
-        throw new RuntimeException("unknown editor block type:" + editorType);
+        throw new IllegalArgumentException("Unknown editor block type: " + editorType);
     }
 
     public String toEditorType() {
@@ -0,0 +1,41 @@
+package com.pradera.poc.repository;
+
+import com.pradera.poc.domain.Block;
+import java.io.Serializable;
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+/**
+ * Completes the lineage of the {@link Block}s being inserted.
+ * <p>
+ * The {@code rootId} of a first version is its own id, which is only generated when the block is persisted: it is
+ * set here, once the id is known but before the insert statement is built, so the block is inserted with its lineage
+ * instead of being inserted and then updated. Blocks persisted without an explicit lineage get the lineage of their
+ * parent, see {@link Block#inheritLineage(Block)}.
+ */
+public class BlockLineageInterceptor extends EmptyInterceptor {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public boolean onSave(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+        if (!(entity instanceof Block)) {
+            return false;
+        }
+        Block block = (Block) entity;
+        if (block.getDepth() == null) {
+            block.inheritLineage(block.getParent());
+        }
+        if (block.getRootId() == null) {
+            block.setRootId((Long) id);
+        }
+        for (int i = 0; i < propertyNames.length; i++) {
+            if ("rootId".equals(propertyNames[i])) {
+                state[i] = block.getRootId();
+            } else if ("depth".equals(propertyNames[i])) {
+                state[i] = block.getDepth();
+            }
+        }
+        return true;
+    }
+}
@@ -1,7 +1,14 @@
 package com.pradera.poc.repository;
 
 import com.pradera.poc.domain.Block;
+import com.pradera.poc.service.dto.BlockDeltaDTO;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,15 +18,73 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BlockRepository extends JpaRepository<Block, Long>, JpaSpecificationExecutor<Block> {
+public interface BlockRepository
+    extends JpaRepository<Block, Long>, JpaSpecificationExecutor<Block>, SliceSpecificationExecutor<Block>, BlockRepositoryWithSummaries {
     @Query("select block from Block block where block.user.login = ?#{principal.username}")
     List<Block> findByUserIsCurrentUser();
 
     @Query(
         "select block " +
-        "from Block block " +
+        "from Block block fetch all properties " +
         "inner join FlowBlock flowblock on block.id = flowblock.block.id " +
-        " where flowblock.flow.id = :flowId order by flowblock.blockOrder"
+        " where flowblock.flow.id = :flowId order by flowblock.blockOrder, flowblock.id"
     )
+    @EntityGraph(attributePaths = { "parent", "user" })
     List<Block> findByFlowId(@Param("flowId") Long flowId);
+
+    @Query("select block from Block block fetch all properties where block.id = :id")
+    @EntityGraph(attributePaths = { "parent", "user" })
+    Optional<Block> findOneWithContent(@Param("id") Long id);
+
+    List<Block> findByUserIdAndHashIn(Long userId, Collection<String> hashes);
+
+    List<Block> findByParentIdAndContentDeltaIsNotNull(Long parentId);
+
+    /**
+     * The id of the parent of a block, without loading the block: {@code null} for a first version.
+     */
+    @Query("select block.parent.id from Block block where block.id = :id")
+    Long findParentIdById(@Param("id") Long id);
+
+    /**
+     * The contents of blocks stored in full, without loading the blocks.
+     */
+    @Query("select new com.pradera.poc.service.dto.BlockDeltaDTO(block.id, block.content) from Block block where block.id in :ids")
+    List<BlockDeltaDTO> findContentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * All the versions of a block, from its first version.
+     */
+    List<Block> findByRootIdOrderByDepthAscIdAsc(Long rootId);
+
+    /**
+     * Whether a block is a version of the same first version as another block, no newer than it.
+     */
+    @Query(
+        "select case when count(block) > 0 then true else false end from Block block, Block version " +
+        "where block.id = :id and version.id = :versionId and version.rootId = block.rootId and version.depth <= block.depth"
+    )
+    boolean existsEarlierVersion(@Param("id") Long id, @Param("versionId") Long versionId);
+
+    /**
+     * The latest version of each of the given first versions.
+     */
+    @Query(
+        "select block from Block block where block.rootId in :rootIds and not exists (" +
+        "select newer.id from Block newer where newer.rootId = block.rootId " +
+        "and (newer.depth > block.depth or (newer.depth = block.depth and newer.id > block.id)))"
+    )
+    List<Block> findLatestRevisionsByRootIdIn(@Param("rootIds") Collection<Long> rootIds);
+
+    @Override
+    @EntityGraph(attributePaths = { "parent", "user" })
+    List<Block> findAll(Specification<Block> specification);
+
+    @Override
+    @EntityGraph(attributePaths = { "parent", "user" })
+    Page<Block> findAll(Specification<Block> specification, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = { "parent", "user" })
+    Slice<Block> findSlice(Specification<Block> specification, Pageable pageable);
 }
@@ -0,0 +1,60 @@
+package com.pradera.poc.repository;
+
+import com.pradera.poc.domain.Block;
+import com.pradera.poc.service.dto.BlockDeltaDTO;
+import com.pradera.poc.service.dto.BlockSummaryDTO;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Queries returning {@link BlockSummaryDTO} and {@link BlockDeltaDTO} projections of the {@link Block} entity.
+ */
+public interface BlockRepositoryWithSummaries {
+    /**
+     * Returns a {@link Page} of summaries of the blocks matching the given {@link Specification}, reading only an
+     * excerpt of their content.
+     *
+     * @param specification the filters the blocks should match, can be {@literal null}.
+     * @param pageable the pagination information.
+     * @return a page of block summaries.
+     */
+    Page<BlockSummaryDTO> findAllSummaries(Specification<Block> specification, Pageable pageable);
+
+    /**
+     * Returns a {@link Slice} of summaries of the blocks matching the given {@link Specification}, without counting
+     * all the matching blocks.
+     *
+     * @param specification the filters the blocks should match, can be {@literal null}.
+     * @param pageable the pagination information.
+     * @return a slice of block summaries.
+     */
+    Slice<BlockSummaryDTO> findSummarySlice(Specification<Block> specification, Pageable pageable);
+
+    /**
+     * Returns a {@link Slice} of the history of a block: the block, its parent, the parent of its parent, and so on up
+     * to the first version, read with a single recursive query.
+     * <p>
+     * The walk is bounded by the page size, and the next page starts after the last block of the previous one, so a
+     * long edit chain is paged through without walking the already returned versions again.
+     *
+     * @param id the id of the block.
+     * @param after the id of the last block of the previous page, {@literal null} for the first page.
+     * @param pageable the pagination information, only its size is used.
+     * @return a slice of the summaries of the versions, newest first.
+     */
+    Slice<BlockSummaryDTO> findHistory(Long id, Long after, Pageable pageable);
+
+    /**
+     * Returns the chains of deltas to apply to reconstruct the contents of blocks, read with a single recursive query:
+     * each block, its parent, and so on up to the first of them whose content is stored in full. The contents stored
+     * in full are not read.
+     *
+     * @param ids the ids of the blocks.
+     * @return the blocks and their parents, each once, in no particular order.
+     */
+    List<BlockDeltaDTO> findDeltaChains(Collection<Long> ids);
+}
@@ -0,0 +1,196 @@
+package com.pradera.poc.repository;
+
+import com.pradera.poc.domain.Block;
+import com.pradera.poc.domain.Block_;
+import com.pradera.poc.domain.User;
+import com.pradera.poc.domain.User_;
+import com.pradera.poc.domain.enumeration.BlockType;
+import com.pradera.poc.service.dto.BlockDeltaDTO;
+import com.pradera.poc.service.dto.BlockSummaryDTO;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.ZonedDateTimeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+public class BlockRepositoryWithSummariesImpl implements BlockRepositoryWithSummaries {
+
+    /**
+     * Walks up the parents of the block matching the {@code %s} condition, up to {@code :maxDepth} levels. Plain
+     * {@code WITH RECURSIVE}, which is supported by both PostgreSQL and H2.
+     */
+    private static final String HISTORY_QUERY =
+        "WITH RECURSIVE history (id, parent_id, depth) AS (" +
+        "SELECT block.id, block.parent_id, 0 FROM block WHERE %s " +
+        "UNION ALL " +
+        "SELECT block.id, block.parent_id, history.depth + 1 FROM block INNER JOIN history ON block.id = history.parent_id " +
+        "WHERE history.depth < :maxDepth" +
+        ") " +
+        "SELECT block.id, block.type, block.hash, block.created_date, block.content_length, block.excerpt, " +
+        "block.parent_id, jhi_user.id AS user_id, jhi_user.login AS user_login " +
+        "FROM history INNER JOIN block ON block.id = history.id INNER JOIN jhi_user ON jhi_user.id = block.user_id " +
+        "ORDER BY history.depth";
+
+    /**
+     * Walks up the parents of blocks until the first one whose content is stored in full. Chains sharing parents walk
+     * them once each, so the blocks are selected by id from the chains rather than joined to them.
+     */
+    private static final String DELTA_CHAINS_QUERY =
+        "WITH RECURSIVE chain (id, parent_id, delta_encoded) AS (" +
+        "SELECT block.id, block.parent_id, CASE WHEN block.content_delta IS NULL THEN 0 ELSE 1 END FROM block WHERE block.id IN (:ids) " +
+        "UNION ALL " +
+        "SELECT block.id, block.parent_id, CASE WHEN block.content_delta IS NULL THEN 0 ELSE 1 END " +
+        "FROM block INNER JOIN chain ON block.id = chain.parent_id WHERE chain.delta_encoded = 1" +
+        ") " +
+        "SELECT block.id, block.parent_id, block.content_delta FROM block WHERE block.id IN (SELECT chain.id FROM chain)";
+
+    private final EntityManager entityManager;
+
+    public BlockRepositoryWithSummariesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<BlockSummaryDTO> findAllSummaries(Specification<Block> specification, Pageable pageable) {
+        TypedQuery<BlockSummaryDTO> query = createQuery(specification, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(specification));
+    }
+
+    @Override
+    public Slice<BlockSummaryDTO> findSummarySlice(Specification<Block> specification, Pageable pageable) {
+        TypedQuery<BlockSummaryDTO> query = createQuery(specification, pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageable, false);
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+        List<BlockSummaryDTO> content = query.getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public Slice<BlockSummaryDTO> findHistory(Long id, Long after, Pageable pageable) {
+        // the history of "after" without "after" itself is the history of its parent
+        String start = after == null
+            ? "block.id = :id"
+            : "block.id = (SELECT after_block.parent_id FROM block after_block WHERE after_block.id = :id)";
+        @SuppressWarnings("unchecked")
+        NativeQuery<Object[]> query = entityManager
+            .createNativeQuery(String.format(HISTORY_QUERY, start))
+            .unwrap(NativeQuery.class)
+            .addScalar("id", StandardBasicTypes.LONG)
+            .addScalar("type", StandardBasicTypes.STRING)
+            .addScalar("hash", StandardBasicTypes.STRING)
+            .addScalar("created_date", ZonedDateTimeType.INSTANCE)
+            .addScalar("content_length", StandardBasicTypes.INTEGER)
+            .addScalar("excerpt", StandardBasicTypes.STRING)
+            .addScalar("parent_id", StandardBasicTypes.LONG)
+            .addScalar("user_id", StandardBasicTypes.LONG)
+            .addScalar("user_login", StandardBasicTypes.STRING);
+        query.setParameter("id", after == null ? id : after);
+        // depths 0 to the page size: one more version than the page size, to know if there is a next page
+        query.setParameter("maxDepth", pageable.getPageSize());
+        List<BlockSummaryDTO> content = new ArrayList<>();
+        for (Object[] row : query.getResultList()) {
+            content.add(
+                new BlockSummaryDTO(
+                    (Long) row[0],
+                    BlockType.valueOf((String) row[1]),
+                    (String) row[2],
+                    (ZonedDateTime) row[3],
+                    (Integer) row[4],
+                    (String) row[5],
+                    (Long) row[6],
+                    (Long) row[7],
+                    (String) row[8]
+                )
+            );
+        }
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public List<BlockDeltaDTO> findDeltaChains(Collection<Long> ids) {
+        @SuppressWarnings("unchecked")
+        NativeQuery<Object[]> query = entityManager
+            .createNativeQuery(DELTA_CHAINS_QUERY)
+            .unwrap(NativeQuery.class)
+            .addScalar("id", StandardBasicTypes.LONG)
+            .addScalar("parent_id", StandardBasicTypes.LONG)
+            .addScalar("content_delta", StandardBasicTypes.BINARY);
+        query.setParameterList("ids", ids);
+        List<BlockDeltaDTO> chains = new ArrayList<>();
+        for (Object[] row : query.getResultList()) {
+            chains.add(new BlockDeltaDTO((Long) row[0], (Long) row[1], (byte[]) row[2]));
+        }
+        return chains;
+    }
+
+    private TypedQuery<BlockSummaryDTO> createQuery(Specification<Block> specification, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BlockSummaryDTO> query = cb.createQuery(BlockSummaryDTO.class);
+        Root<Block> block = query.from(Block.class);
+        Join<Block, User> user = block.join(Block_.user);
+        query.select(
+            cb.construct(
+                BlockSummaryDTO.class,
+                block.get(Block_.id),
+                block.get(Block_.type),
+                block.get(Block_.hash),
+                block.get(Block_.createdDate),
+                block.get(Block_.contentLength),
+                block.get(Block_.excerpt),
+                block.get(Block_.parent).get(Block_.id),
+                user.get(User_.id),
+                user.get(User_.login)
+            )
+        );
+        Predicate predicate = toPredicate(specification, block, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, block, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Block> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Block> block = query.from(Block.class);
+        Predicate predicate = toPredicate(specification, block, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(query.isDistinct() ? cb.countDistinct(block) : cb.count(block));
+        // the specification may have set distinct for its joins, which is already applied by countDistinct
+        query.distinct(false);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate toPredicate(Specification<Block> specification, Root<Block> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        return specification == null ? null : specification.toPredicate(root, query, cb);
+    }
+}
@@ -1,7 +1,17 @@
 package com.pradera.poc.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import com.pradera.poc.domain.FlowBlock;
+import com.pradera.poc.service.dto.DocumentNodeDTO;
+import com.pradera.poc.service.dto.FlowBlockRowDTO;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,6 +19,69 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface FlowBlockRepository extends JpaRepository<FlowBlock, Long>, JpaSpecificationExecutor<FlowBlock> {
-    long deleteByFlowId(Long id);
+public interface FlowBlockRepository
+    extends JpaRepository<FlowBlock, Long>, JpaSpecificationExecutor<FlowBlock>, SliceSpecificationExecutor<FlowBlock> {
+    /**
+     * Delete the flowBlocks of a flow with a single statement, without loading them.
+     * <p>
+     * The persistence context is flushed before and cleared after the delete, so no deleted flowBlock stays managed.
+     *
+     * @param flowId the id of the flow.
+     * @return the number of deleted flowBlocks.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from FlowBlock flowBlock where flowBlock.flow.id = :flowId")
+    int deleteByFlowId(@Param("flowId") Long flowId);
+
+    /**
+     * Delete flowBlocks by id with a single statement, without loading them.
+     * <p>
+     * The persistence context is flushed before and cleared after the delete, so no deleted flowBlock stays managed.
+     *
+     * @param ids the ids of the flowBlocks.
+     * @return the number of deleted flowBlocks.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from FlowBlock flowBlock where flowBlock.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(
+        "select flowBlock " +
+        "from FlowBlock flowBlock " +
+        "join fetch flowBlock.block " +
+        "where flowBlock.flow.id = :flowId order by flowBlock.blockOrder, flowBlock.id"
+    )
+    List<FlowBlock> findByFlowIdWithBlocks(@Param("flowId") Long flowId);
+
+    @Query("select flowBlock from FlowBlock flowBlock join fetch flowBlock.block where flowBlock.id in :ids")
+    List<FlowBlock> findByIdInWithBlocks(@Param("ids") Collection<Long> ids);
+
+    @Query(
+        "select new com.pradera.poc.service.dto.FlowBlockRowDTO(" +
+        "flowBlock.id, flowBlock.blockOrder, block.id, block.type, block.hash) " +
+        "from FlowBlock flowBlock " +
+        "join flowBlock.block block " +
+        "where flowBlock.flow.id = :flowId order by flowBlock.blockOrder, flowBlock.id"
+    )
+    List<FlowBlockRowDTO> findRowsByFlowId(@Param("flowId") Long flowId);
+
+    @Query(
+        "select new com.pradera.poc.service.dto.DocumentNodeDTO(block.type, block.content, block.id) " +
+        "from FlowBlock flowBlock " +
+        "join flowBlock.block block " +
+        "where flowBlock.flow.id = :flowId order by flowBlock.blockOrder, flowBlock.id"
+    )
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "100"))
+    Stream<DocumentNodeDTO> streamDocumentNodesByFlowId(@Param("flowId") Long flowId);
+
+    @Query(
+        "select flowBlock.block.id from FlowBlock flowBlock " +
+        "where flowBlock.flow.id = :flowId order by flowBlock.blockOrder, flowBlock.id"
+    )
+    List<Long> findBlockIdsByFlowId(@Param("flowId") Long flowId);
+
+    @Query("select distinct flowBlock.flow.id from FlowBlock flowBlock where flowBlock.block.id = :blockId")
+    List<Long> findFlowIdsByBlockId(@Param("blockId") Long blockId);
+
+    Optional<FlowBlock> findFirstByFlowIdAndBlockOrderGreaterThanOrderByBlockOrderAscIdAsc(Long flowId, Long blockOrder);
 }
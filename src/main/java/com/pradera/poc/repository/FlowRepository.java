@@ -10,7 +10,7 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface FlowRepository extends JpaRepository<Flow, Long>, JpaSpecificationExecutor<Flow> {
+public interface FlowRepository extends JpaRepository<Flow, Long>, JpaSpecificationExecutor<Flow>, SliceSpecificationExecutor<Flow> {
     @Query("select flow from Flow flow where flow.user.login = ?#{principal.username}")
     List<Flow> findByUserIsCurrentUser();
 
@@ -0,0 +1,51 @@
+package com.pradera.poc.repository;
+
+import com.pradera.poc.domain.FlowSnapshot;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the FlowSnapshot entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface FlowSnapshotRepository extends JpaRepository<FlowSnapshot, Long> {
+    /**
+     * Read the encoded snapshot of a flow, without materializing the entity.
+     *
+     * @param flowId the id of the flow.
+     * @return the encoded snapshot, or empty if the flow has no snapshot.
+     */
+    @Query("select flowSnapshot.data from FlowSnapshot flowSnapshot where flowSnapshot.flowId = :flowId")
+    Optional<byte[]> findDataByFlowId(@Param("flowId") Long flowId);
+
+    /**
+     * Replace the encoded snapshot of a flow, without reading the previous one.
+     *
+     * @param flowId the id of the flow.
+     * @param data the encoded snapshot.
+     * @return the number of updated snapshots, {@code 0} if the flow has no snapshot yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update FlowSnapshot flowSnapshot set flowSnapshot.data = :data where flowSnapshot.flowId = :flowId")
+    int updateData(@Param("flowId") Long flowId, @Param("data") byte[] data);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from FlowSnapshot flowSnapshot where flowSnapshot.flowId = :flowId")
+    int deleteByFlowId(@Param("flowId") Long flowId);
+
+    /**
+     * Delete the snapshots of the flows that contain a block, whose content is about to change.
+     *
+     * @param blockId the id of the block.
+     * @return the number of deleted snapshots.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        "delete from FlowSnapshot flowSnapshot where flowSnapshot.flowId in " +
+        "(select flowBlock.flow.id from FlowBlock flowBlock where flowBlock.block.id = :blockId)"
+    )
+    int deleteByBlockId(@Param("blockId") Long blockId);
+}
@@ -0,0 +1,45 @@
+package com.pradera.poc.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+/**
+ * Listener timing the invocations of the methods of the Spring Data repositories.
+ * <p>
+ * The invocations are recorded in the {@value #METRIC_NAME} timer, tagged with the repository, the method, whether it
+ * is a criteria query taking a {@link Specification}, the state of the invocation and the exception thrown, if any.
+ */
+public class RepositoryInvocationMetrics implements RepositoryMethodInvocationListener {
+
+    public static final String METRIC_NAME = "repository.invocations";
+
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    /**
+     * @param meterRegistry the registry of the timers, only resolved when a method is invoked.
+     */
+    public RepositoryInvocationMetrics(Supplier<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        RepositoryMethodInvocationResult result = invocation.getResult();
+        Throwable error = result == null ? null : result.getError();
+        Timer
+            .builder(METRIC_NAME)
+            .description("Execution time of the repository methods")
+            .tag("repository", invocation.getRepositoryInterface().getSimpleName())
+            .tag("method", invocation.getMethod().getName())
+            .tag("criteria", String.valueOf(Arrays.asList(invocation.getMethod().getParameterTypes()).contains(Specification.class)))
+            .tag("state", result == null ? "UNKNOWN" : result.getState().name())
+            .tag("exception", error == null ? "none" : error.getClass().getSimpleName())
+            .register(meterRegistry.get())
+            .record(invocation.getDuration(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,76 @@
+package com.pradera.poc.repository;
+
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.lang.Nullable;
+
+/**
+ * Base class of the Spring Data repositories, adding {@link SliceSpecificationExecutor} to {@link SimpleJpaRepository}.
+ * <p>
+ * The {@link Specification} queries of the entities in the second level cache, and their count queries, are cacheable
+ * in the {@link #criteriaQueryRegion(Class)} of the entity when {@code hibernate.cache.use_query_cache} is enabled: the
+ * cached ids are invalidated by the update timestamps of the tables they read, and resolved from the entity region.
+ *
+ * @param <T> the domain type.
+ * @param <ID> the type of the id of the entity.
+ */
+public class SliceJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> implements SliceSpecificationExecutor<T> {
+
+    private final boolean cacheable;
+
+    public SliceJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.cacheable = entityInformation.getJavaType().isAnnotationPresent(Cache.class);
+    }
+
+    /**
+     * Get the query cache region of the {@link Specification} queries of an entity.
+     *
+     * @param domainClass the entity class.
+     * @return the name of the region.
+     */
+    public static String criteriaQueryRegion(Class<?> domainClass) {
+        return domainClass.getName() + ".criteria";
+    }
+
+    @Override
+    protected <S extends T> TypedQuery<S> getQuery(@Nullable Specification<S> spec, Class<S> domainClass, Sort sort) {
+        return cacheable(super.getQuery(spec, domainClass, sort), spec);
+    }
+
+    @Override
+    protected <S extends T> TypedQuery<Long> getCountQuery(@Nullable Specification<S> spec, Class<S> domainClass) {
+        return cacheable(super.getCountQuery(spec, domainClass), spec);
+    }
+
+    private <Q extends TypedQuery<?>> Q cacheable(Q query, @Nullable Specification<?> spec) {
+        if (cacheable && spec != null) {
+            query.setHint(QueryHints.CACHEABLE, true);
+            query.setHint(QueryHints.CACHE_REGION, criteriaQueryRegion(getDomainClass()));
+        }
+        return query;
+    }
+
+    @Override
+    public Slice<T> findSlice(@Nullable Specification<T> specification, Pageable pageable) {
+        TypedQuery<T> query = getQuery(specification, pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageable, false);
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+        List<T> content = query.getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+}
@@ -0,0 +1,25 @@
+package com.pradera.poc.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.Nullable;
+
+/**
+ * Specification queries returning a {@link Slice}, implemented by {@link SliceJpaRepository}.
+ * <p>
+ * Unlike {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor#findAll(Specification, Pageable)},
+ * no {@code count} query is issued: one more row than the page size is read to know if there is a next slice.
+ *
+ * @param <T> the domain type.
+ */
+public interface SliceSpecificationExecutor<T> {
+    /**
+     * Returns a {@link Slice} of entities matching the given {@link Specification}.
+     *
+     * @param specification the filters the entities should match, can be {@literal null}.
+     * @param pageable the pagination information.
+     * @return a slice of entities.
+     */
+    Slice<T> findSlice(@Nullable Specification<T> specification, Pageable pageable);
+}
@@ -3,9 +3,17 @@ package com.pradera.poc.security.jwt;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +33,17 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    /**
+     * Maximum number of verified tokens kept by {@link #getValidAuthentication(String)}.
+     */
+    static final int VERIFIED_TOKENS_MAX_SIZE = 10_000;
+
+    /**
+     * Timer of the authentications of the requests by token, tagged with the verified tokens cache hit or miss, and
+     * with their outcome.
+     */
+    public static final String TOKEN_AUTHENTICATION_METRIC_NAME = "security.authentication.token";
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -33,7 +52,17 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    private final ConcurrentMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    private final Clock clock = Clock.systemUTC();
+
+    private final Timer cacheHitTimer;
+
+    private final Timer cacheMissTimer;
+
+    private final Timer invalidTokenTimer;
+
+    public TokenProvider(JHipsterProperties jHipsterProperties, MeterRegistry meterRegistry) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -51,6 +80,9 @@ public class TokenProvider {
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+        this.cacheHitTimer = tokenAuthenticationTimer(meterRegistry, "hit", "success");
+        this.cacheMissTimer = tokenAuthenticationTimer(meterRegistry, "miss", "success");
+        this.invalidTokenTimer = tokenAuthenticationTimer(meterRegistry, "miss", "failure");
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
@@ -74,8 +106,56 @@ public class TokenProvider {
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return getAuthentication(token, jwtParser.parseClaimsJws(token).getBody());
+    }
 
+    /**
+     * Get the authentication of a token, if the token is valid.
+     * <p>
+     * The token is parsed and its signature verified once: the resolved principal is then kept, by SHA-256 digest of
+     * the token, until the token expires. At most {@link #VERIFIED_TOKENS_MAX_SIZE} tokens are kept, the expired ones
+     * are dropped when the cache is full, and the whole cache when it is still full. Each call is timed by
+     * {@link #TOKEN_AUTHENTICATION_METRIC_NAME}.
+     *
+     * @param token the token.
+     * @return the authentication of the token, or empty if the token is invalid or expired.
+     */
+    public Optional<Authentication> getValidAuthentication(String token) {
+        long start = System.nanoTime();
+        String digest = digest(token);
+        long now = clock.millis();
+        VerifiedToken verifiedToken = verifiedTokens.get(digest);
+        if (verifiedToken != null && now < verifiedToken.expiresAt) {
+            User principal = verifiedToken.principal;
+            Authentication authentication = new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
+            cacheHitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(authentication);
+        }
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            verifiedTokens.remove(digest);
+            log.info("Invalid JWT token.");
+            log.trace("Invalid JWT token trace.", e);
+            invalidTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.empty();
+        }
+        Authentication authentication = getAuthentication(token, claims);
+        if (claims.getExpiration() != null) {
+            if (verifiedTokens.size() >= VERIFIED_TOKENS_MAX_SIZE) {
+                verifiedTokens.values().removeIf(expired -> expired.expiresAt <= now);
+                if (verifiedTokens.size() >= VERIFIED_TOKENS_MAX_SIZE) {
+                    verifiedTokens.clear();
+                }
+            }
+            verifiedTokens.put(digest, new VerifiedToken((User) authentication.getPrincipal(), claims.getExpiration().getTime()));
+        }
+        cacheMissTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return Optional.of(authentication);
+    }
+
+    private Authentication getAuthentication(String token, Claims claims) {
         Collection<? extends GrantedAuthority> authorities = Arrays
             .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
             .filter(auth -> !auth.trim().isEmpty())
@@ -97,4 +177,37 @@ public class TokenProvider {
         }
         return false;
     }
+
+    private static Timer tokenAuthenticationTimer(MeterRegistry meterRegistry, String cache, String outcome) {
+        return Timer
+            .builder(TOKEN_AUTHENTICATION_METRIC_NAME)
+            .description("Time to authenticate a request by token")
+            .tag("cache", cache)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * The principal of a verified token, with the expiry of the token.
+     */
+    private static final class VerifiedToken {
+
+        private final User principal;
+
+        private final long expiresAt;
+
+        private VerifiedToken(User principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
@@ -0,0 +1,95 @@
+package com.pradera.poc.service;
+
+import com.pradera.poc.domain.Block;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Delta encoding of the content of a {@link Block} revision against the content of its parent.
+ * <p>
+ * Editing a paragraph usually changes a single span of it, so a delta is the length of the prefix and of the suffix
+ * kept from the parent, as unsigned LEB128 varints counting UTF-16 chars, followed by the UTF-8 text replacing the
+ * span in between. The prefix and the suffix never split a surrogate pair, so the text in between encodes losslessly.
+ */
+public final class BlockDelta {
+
+    private BlockDelta() {}
+
+    /**
+     * Compute the delta from a content to another one.
+     *
+     * @param base the content of the parent.
+     * @param target the content of the revision.
+     * @return the delta, see {@link #apply(String, byte[])}.
+     */
+    public static byte[] diff(String base, String target) {
+        int maxLength = Math.min(base.length(), target.length());
+        int prefix = 0;
+        while (prefix < maxLength && base.charAt(prefix) == target.charAt(prefix)) {
+            prefix++;
+        }
+        if (prefix > 0 && Character.isHighSurrogate(base.charAt(prefix - 1))) {
+            prefix--;
+        }
+        int suffix = 0;
+        while (
+            suffix < maxLength - prefix && base.charAt(base.length() - 1 - suffix) == target.charAt(target.length() - 1 - suffix)
+        ) {
+            suffix++;
+        }
+        if (suffix > 0 && Character.isLowSurrogate(base.charAt(base.length() - suffix))) {
+            suffix--;
+        }
+        byte[] inserted = target.substring(prefix, target.length() - suffix).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream delta = new ByteArrayOutputStream(inserted.length + 6);
+        writeVarint(delta, prefix);
+        writeVarint(delta, suffix);
+        delta.write(inserted, 0, inserted.length);
+        return delta.toByteArray();
+    }
+
+    /**
+     * Apply a delta to a content.
+     *
+     * @param base the content of the parent.
+     * @param delta a delta computed by {@link #diff(String, String)} from {@code base}.
+     * @return the content of the revision.
+     * @throws IllegalArgumentException if the delta is invalid or does not apply to {@code base}.
+     */
+    public static String apply(String base, byte[] delta) {
+        int[] position = { 0 };
+        int prefix = readVarint(delta, position);
+        int suffix = readVarint(delta, position);
+        if (prefix < 0 || suffix < 0 || prefix + suffix > base.length()) {
+            throw new IllegalArgumentException("Block delta does not apply to a content of length " + base.length());
+        }
+        return (
+            base.substring(0, prefix) +
+            new String(delta, position[0], delta.length - position[0], StandardCharsets.UTF_8) +
+            base.substring(base.length() - suffix)
+        );
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] bytes, int[] position) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (position[0] >= bytes.length) {
+                throw new IllegalArgumentException("Truncated block delta");
+            }
+            byte b = bytes[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in block delta");
+    }
+}
@@ -0,0 +1,61 @@
+package com.pradera.poc.service;
+
+import com.pradera.poc.domain.Block;
+import com.pradera.poc.domain.enumeration.BlockType;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+
+/**
+ * Content addressing of {@link Block}s.
+ * <p>
+ * The hash of a block is the hex encoded SHA-256 of {@code TYPE + ":" + content}, where the content is normalized
+ * first. It is computed by the server whenever the type or the content of a block is written, so two blocks of a user
+ * with the same hash have the same type and content and can be used interchangeably.
+ */
+public final class BlockHasher {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private BlockHasher() {}
+
+    /**
+     * Normalize the content of a block before it is hashed and stored: Unicode NFC and {@code \n} line endings, so
+     * the same text typed or pasted on different platforms is stored once.
+     *
+     * @param content the content of a block.
+     * @return the normalized content, or an empty string if {@code content} is {@code null}.
+     */
+    public static String normalize(String content) {
+        if (content == null) {
+            return "";
+        }
+        return Normalizer.normalize(content, Normalizer.Form.NFC).replace("\r\n", "\n").replace('\r', '\n');
+    }
+
+    /**
+     * Hash the given type and content.
+     *
+     * @param type the type of the block.
+     * @param content the content of the block, normalized with {@link #normalize(String)}.
+     * @return the hex encoded SHA-256 of the block.
+     */
+    public static String hash(BlockType type, String content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        digest.update(type.name().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        byte[] bytes = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+}
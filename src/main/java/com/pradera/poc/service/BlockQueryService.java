@@ -4,12 +4,16 @@ import com.pradera.poc.domain.*; // for static metamodels
 import com.pradera.poc.domain.Block;
 import com.pradera.poc.repository.BlockRepository;
 import com.pradera.poc.service.criteria.BlockCriteria;
+import com.pradera.poc.service.dto.BlockSummaryDTO;
+import java.time.ZonedDateTime;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,8 +33,11 @@ public class BlockQueryService extends QueryService<Block> {
 
     private final BlockRepository blockRepository;
 
-    public BlockQueryService(BlockRepository blockRepository) {
+    private final BlockService blockService;
+
+    public BlockQueryService(BlockRepository blockRepository, BlockService blockService) {
         this.blockRepository = blockRepository;
+        this.blockService = blockService;
     }
 
     /**
@@ -58,10 +65,72 @@ public class BlockQueryService extends QueryService<Block> {
         return blockRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link Page} of {@link BlockSummaryDTO} of the entities which match the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the summaries of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<BlockSummaryDTO> findSummariesByCriteria(BlockCriteria criteria, Pageable page) {
+        log.debug("find summaries by criteria : {}, page: {}", criteria, page);
+        final Specification<Block> specification = createSpecification(criteria);
+        return blockRepository.findAllSummaries(specification, page);
+    }
+
+    /**
+     * Return a {@link Slice} of {@link BlockSummaryDTO} of the entities which match the criteria from the database,
+     * without counting the matching entities.
+     * <p>
+     * The slice is ordered by {@code createdDate} and id if the page is sorted by {@code createdDate}, and by id
+     * otherwise, and starts after the given cursor.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param afterCreatedDate The createdDate of the last entity of the previous slice, only used when ordered by createdDate.
+     * @param afterId The id of the last entity of the previous slice, {@code null} for the first slice.
+     * @param page The size and the order of the slice.
+     * @return the summaries of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<BlockSummaryDTO> findSummariesByCriteria(
+        BlockCriteria criteria,
+        ZonedDateTime afterCreatedDate,
+        Long afterId,
+        Pageable page
+    ) {
+        log.debug("find summaries by criteria : {}, after: {},{}, page: {}", criteria, afterCreatedDate, afterId, page);
+        Specification<Block> specification = createSpecification(criteria);
+        Pageable keysetPage;
+        if (isOrderedByCreatedDate(page)) {
+            Sort.Direction direction = KeysetPagination.direction(page.getSort(), Block_.CREATED_DATE);
+            specification =
+                specification.and(
+                    KeysetPagination.after(Block_.createdDate, Block_.id, afterId == null ? null : afterCreatedDate, afterId, direction)
+                );
+            keysetPage = KeysetPagination.pageRequest(page, direction, Block_.CREATED_DATE, Block_.ID);
+        } else {
+            Sort.Direction direction = KeysetPagination.direction(page.getSort(), Block_.ID);
+            specification = specification.and(KeysetPagination.after(Block_.id, afterId, direction));
+            keysetPage = KeysetPagination.pageRequest(page, direction, Block_.ID);
+        }
+        return blockRepository.findSummarySlice(specification, keysetPage);
+    }
+
+    /**
+     * Whether the keyset of {@link #findSummariesByCriteria(BlockCriteria, ZonedDateTime, Long, Pageable)} is
+     * {@code (createdDate, id)} for the given page, rather than the id alone.
+     * @param page The requested page.
+     * @return {@code true} if the page is sorted by {@code createdDate}.
+     */
+    public static boolean isOrderedByCreatedDate(Pageable page) {
+        return page.getSort().getOrderFor(Block_.CREATED_DATE) != null;
+    }
+
     @Transactional(readOnly = true)
     public List<Block> findByFlowId(Long flowId) {
         log.debug("find by flowId : {}", flowId);
-        return blockRepository.findByFlowId(flowId);
+        List<Block> blocks = blockRepository.findByFlowId(flowId);
+        blockService.getContents(blocks);
+        return blocks;
     }
 
     /**
@@ -1,12 +1,30 @@
 package com.pradera.poc.service;
 
+import com.pradera.poc.config.ApplicationProperties;
 import com.pradera.poc.domain.Block;
+import com.pradera.poc.domain.BlockContentType;
 import com.pradera.poc.repository.BlockRepository;
+import com.pradera.poc.repository.FlowSnapshotRepository;
+import com.pradera.poc.service.dto.BlockDeltaDTO;
+import com.pradera.poc.service.dto.BlockSummaryDTO;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,49 +35,107 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class BlockService {
 
+    /**
+     * Maximum number of versions returned by one page of the history of a block.
+     */
+    public static final int HISTORY_MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Cache of the contents of the blocks stored in full that deltas were applied to, by block id.
+     */
+    public static final String KEYFRAMES_CACHE = BlockService.class.getName() + ".keyframes";
+
     private final Logger log = LoggerFactory.getLogger(BlockService.class);
 
     private final BlockRepository blockRepository;
 
-    public BlockService(BlockRepository blockRepository) {
+    private final FlowSnapshotRepository flowSnapshotRepository;
+
+    private final ApplicationProperties.BlockStorage blockStorage;
+
+    private final CacheManager cacheManager;
+
+    private final FlowDocumentCache flowDocumentCache;
+
+    public BlockService(
+        BlockRepository blockRepository,
+        FlowSnapshotRepository flowSnapshotRepository,
+        ApplicationProperties applicationProperties,
+        CacheManager cacheManager,
+        FlowDocumentCache flowDocumentCache
+    ) {
         this.blockRepository = blockRepository;
+        this.flowSnapshotRepository = flowSnapshotRepository;
+        this.blockStorage = applicationProperties.getBlockStorage();
+        this.cacheManager = cacheManager;
+        this.flowDocumentCache = flowDocumentCache;
     }
 
     /**
-     * Save a block.
+     * Save a block, with the lineage of its parent.
+     * <p>
+     * The content is normalized and the hash computed from it by {@link BlockHasher}. Updating a block edits it in
+     * place, so the snapshots and cached documents of the flows containing it are deleted, and the revisions stored as
+     * a delta against it are stored in full first. A new block is stored as a delta against its parent when delta
+     * encoding is enabled, see {@link #encodeRevision(Block)}.
+     * <p>
+     * The parent of an existing block cannot change: the lineage of its own revisions is derived from it, and so is
+     * their content when they are stored as deltas.
      *
      * @param block the entity to save.
      * @return the persisted entity.
+     * @throws IllegalArgumentException if the block exists with another parent.
      */
     public Block save(Block block) {
         log.debug("Request to save Block : {}", block);
+        Long parentId = block.getParent() == null ? null : block.getParent().getId();
+        if (block.getId() != null && !Objects.equals(parentId, blockRepository.findParentIdById(block.getId()))) {
+            throw new IllegalArgumentException("The parent of block " + block.getId() + " cannot be changed");
+        }
+        Block parent = parentId == null ? null : blockRepository.getOne(parentId);
+        block.parent(parent).inheritLineage(parent);
+        block.setContent(BlockHasher.normalize(block.getContent()));
+        block.setHash(BlockHasher.hash(block.getType(), block.getContent()));
+        if (block.getId() != null) {
+            beforeContentUpdate(block.getId());
+        } else {
+            encodeRevision(block);
+        }
         return blockRepository.save(block);
     }
 
     /**
      * Partially update a block.
+     * <p>
+     * When the type or the content is updated, the hash is computed again, see {@link #save(Block)}, the snapshots and
+     * cached documents of the flows containing the block are deleted, and the revisions stored as a delta against it
+     * are stored in full first.
      *
      * @param block the entity to update partially.
      * @return the persisted entity.
      */
     public Optional<Block> partialUpdate(Block block) {
         log.debug("Request to partially update Block : {}", block);
+        boolean contentUpdate = block.getType() != null || block.getContent() != null;
+        if (contentUpdate) {
+            beforeContentUpdate(block.getId());
+        }
 
         return blockRepository
-            .findById(block.getId())
+            .findOneWithContent(block.getId())
             .map(
                 existingBlock -> {
                     if (block.getType() != null) {
                         existingBlock.setType(block.getType());
                     }
                     if (block.getContent() != null) {
-                        existingBlock.setContent(block.getContent());
+                        existingBlock.setContent(BlockHasher.normalize(block.getContent()));
                     }
                     if (block.getCreatedDate() != null) {
                         existingBlock.setCreatedDate(block.getCreatedDate());
                     }
-                    if (block.getHash() != null) {
-                        existingBlock.setHash(block.getHash());
+                    if (contentUpdate) {
+                        existingBlock.setHash(BlockHasher.hash(existingBlock.getType(), BlockHasher.normalize(getContent(existingBlock))));
                     }
 
                     return existingBlock;
@@ -68,6 +144,162 @@ public class BlockService {
             .map(blockRepository::save);
     }
 
+    /**
+     * Store the content of a new revision as a delta against the content of its parent, when delta encoding is enabled.
+     * <p>
+     * Every {@code keyframeInterval} revisions, by {@link Block#getDepth()}, the content is stored in full, so
+     * reconstructing a content applies less than {@code keyframeInterval} deltas. It is also stored in full when the
+     * delta would not be smaller.
+     *
+     * @param block the new block, with its lineage and content set.
+     * @return the block.
+     */
+    public Block encodeRevision(Block block) {
+        Block parent = block.getParent();
+        if (
+            !blockStorage.isDeltaEncoding() ||
+            parent == null ||
+            block.getContent() == null ||
+            block.getDepth() % blockStorage.getKeyframeInterval() == 0
+        ) {
+            return block;
+        }
+        byte[] delta = BlockDelta.diff(getContent(parent), block.getContent());
+        if (delta.length < BlockContentType.encode(block.getContent()).length) {
+            block.storeContentAsDelta(delta);
+        }
+        return block;
+    }
+
+    /**
+     * Get the content of a block, reconstructing it if it is stored as a delta, see {@link #reconstructContents(Collection)}.
+     * The reconstructed content is kept in the block, see {@link Block#reconstructedContent(String)}.
+     *
+     * @param block the block.
+     * @return the content of the block.
+     */
+    public String getContent(Block block) {
+        String content = block.getContent();
+        if (content != null || !block.isDeltaEncoded()) {
+            return content;
+        }
+        content = reconstructContent(block.getId());
+        block.reconstructedContent(content);
+        return content;
+    }
+
+    /**
+     * Get the contents of blocks, reconstructing the ones stored as deltas together, see
+     * {@link #reconstructContents(Collection)}.
+     *
+     * @param blocks the blocks.
+     */
+    public void getContents(Collection<Block> blocks) {
+        List<Long> ids = blocks
+            .stream()
+            .filter(block -> block.getContent() == null && block.isDeltaEncoded())
+            .map(Block::getId)
+            .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, String> contents = reconstructContents(ids);
+        for (Block block : blocks) {
+            if (contents.containsKey(block.getId())) {
+                block.reconstructedContent(contents.get(block.getId()));
+            }
+        }
+    }
+
+    /**
+     * Reconstruct the content of a block stored as a delta.
+     *
+     * @param id the id of the block.
+     * @return the content of the block.
+     */
+    @Transactional(readOnly = true)
+    public String reconstructContent(Long id) {
+        return reconstructContents(List.of(id)).get(id);
+    }
+
+    /**
+     * Reconstruct the contents of blocks stored as deltas.
+     * <p>
+     * The deltas of all the blocks, up to their first parents stored in full, are read with a single query, see
+     * {@link BlockRepository#findDeltaChains(Collection)}, then applied in memory. The contents of those parents are
+     * cached in {@link #KEYFRAMES_CACHE}, and the ones missing from the cache are read with a single query.
+     *
+     * @param ids the ids of the blocks.
+     * @return the contents of the blocks, by id.
+     * @throws IllegalArgumentException if a block does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, String> reconstructContents(Collection<Long> ids) {
+        Map<Long, BlockDeltaDTO> chains = new HashMap<>();
+        blockRepository.findDeltaChains(ids).forEach(block -> chains.put(block.getId(), block));
+        Map<Long, String> contents = new HashMap<>();
+        List<Long> missingKeyframeIds = new ArrayList<>();
+        Cache keyframes = keyframesCache();
+        for (BlockDeltaDTO block : chains.values()) {
+            if (block.getContentDelta() == null) {
+                String content = keyframes.get(block.getId(), String.class);
+                if (content != null) {
+                    contents.put(block.getId(), content);
+                } else {
+                    missingKeyframeIds.add(block.getId());
+                }
+            }
+        }
+        if (!missingKeyframeIds.isEmpty()) {
+            for (BlockDeltaDTO keyframe : blockRepository.findContentsByIdIn(missingKeyframeIds)) {
+                contents.put(keyframe.getId(), keyframe.getContent());
+                keyframes.put(keyframe.getId(), keyframe.getContent());
+            }
+        }
+        Map<Long, String> reconstructed = new HashMap<>();
+        for (Long id : ids) {
+            reconstructed.put(id, reconstruct(id, chains, contents));
+        }
+        return reconstructed;
+    }
+
+    /**
+     * Apply the deltas from the closest parent of a block whose content is known, keeping the contents of the
+     * intermediate revisions, which other chains may share.
+     */
+    private static String reconstruct(Long id, Map<Long, BlockDeltaDTO> chains, Map<Long, String> contents) {
+        Deque<BlockDeltaDTO> deltas = new ArrayDeque<>();
+        Long current = id;
+        while (!contents.containsKey(current)) {
+            BlockDeltaDTO block = chains.get(current);
+            if (block == null) {
+                throw new IllegalArgumentException("Block " + current + " not found");
+            }
+            deltas.push(block);
+            current = block.getParentId();
+        }
+        String content = contents.get(current);
+        while (!deltas.isEmpty()) {
+            BlockDeltaDTO block = deltas.pop();
+            content = BlockDelta.apply(content, block.getContentDelta());
+            contents.put(block.getId(), content);
+        }
+        return content;
+    }
+
+    private void beforeContentUpdate(Long id) {
+        flowDocumentCache.evictFlowsContaining(id);
+        flowSnapshotRepository.deleteByBlockId(id);
+        for (Block child : blockRepository.findByParentIdAndContentDeltaIsNotNull(id)) {
+            child.setContent(getContent(child));
+        }
+        keyframesCache().evict(id);
+    }
+
+    private Cache keyframesCache() {
+        return Objects.requireNonNull(cacheManager.getCache(KEYFRAMES_CACHE));
+    }
+
     /**
      * Get all the blocks.
      *
@@ -89,16 +321,51 @@ public class BlockService {
     @Transactional(readOnly = true)
     public Optional<Block> findOne(Long id) {
         log.debug("Request to get Block : {}", id);
-        return blockRepository.findById(id);
+        return blockRepository
+            .findOneWithContent(id)
+            .map(
+                block -> {
+                    getContent(block);
+                    return block;
+                }
+            );
+    }
+
+    /**
+     * Whether a block can be a version in the history of another block: it has the same first version, and is not
+     * newer. Blocks of another branch of the same first version are not told apart.
+     *
+     * @param id the id of the block.
+     * @param versionId the id of the version.
+     * @return whether the version can be in the history of the block.
+     */
+    @Transactional(readOnly = true)
+    public boolean isInHistory(Long id, Long versionId) {
+        return blockRepository.existsEarlierVersion(id, versionId);
+    }
+
+    /**
+     * Get a page of the history of a block, from the block itself to its first version.
+     *
+     * @param id the id of the block.
+     * @param after the id of the last version of the previous page, {@code null} for the first page.
+     * @param pageable the pagination information, the size is capped to {@link #HISTORY_MAX_PAGE_SIZE}.
+     * @return the summaries of the versions, newest first.
+     */
+    @Transactional(readOnly = true)
+    public Slice<BlockSummaryDTO> findHistory(Long id, Long after, Pageable pageable) {
+        log.debug("Request to get the history of Block : {}, after: {}", id, after);
+        return blockRepository.findHistory(id, after, PageRequest.of(0, Math.min(pageable.getPageSize(), HISTORY_MAX_PAGE_SIZE)));
     }
 
     /**
-     * Delete the block by id.
+     * Delete the block by id, evicting the cached documents of the flows containing it.
      *
      * @param id the id of the entity.
      */
     public void delete(Long id) {
         log.debug("Request to delete Block : {}", id);
+        flowDocumentCache.evictFlowsContaining(id);
         blockRepository.deleteById(id);
     }
 }
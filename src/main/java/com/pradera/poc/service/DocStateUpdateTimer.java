@@ -0,0 +1,83 @@
+package com.pradera.poc.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Timing of a save of the document of a flow, see {@link FlowService#updateDocState}.
+ * <p>
+ * A save is recorded in the {@value #METRIC_NAME} timer when its transaction completes, so the time spent flushing
+ * and committing the changes is included. It is tagged with the bucket of the number of nodes of the document, the
+ * bucket of the number of nodes that needed a new block, and the outcome of the transaction.
+ */
+public final class DocStateUpdateTimer implements TransactionSynchronization {
+
+    public static final String METRIC_NAME = "flow.doc-state.update";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer.Sample sample;
+
+    private int nodes;
+
+    private int changedNodes;
+
+    private DocStateUpdateTimer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.sample = Timer.start(meterRegistry);
+    }
+
+    /**
+     * Start timing a save, until the completion of the current transaction.
+     *
+     * @param meterRegistry the registry of the timer.
+     * @return the timer of the save, counting its nodes.
+     * @throws IllegalStateException if there is no active transaction synchronization.
+     */
+    public static DocStateUpdateTimer start(MeterRegistry meterRegistry) {
+        DocStateUpdateTimer timer = new DocStateUpdateTimer(meterRegistry);
+        TransactionSynchronizationManager.registerSynchronization(timer);
+        return timer;
+    }
+
+    /**
+     * Count a node of the saved document.
+     *
+     * @param changed whether the node needed a new block.
+     */
+    public void node(boolean changed) {
+        nodes++;
+        if (changed) {
+            changedNodes++;
+        }
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        sample.stop(
+            Timer
+                .builder(METRIC_NAME)
+                .description("Time to save the document of a flow, commit included")
+                .tag("nodes", bucket(nodes))
+                .tag("changed", bucket(changedNodes))
+                .tag("outcome", status == STATUS_COMMITTED ? "committed" : "rolled-back")
+                .register(meterRegistry)
+        );
+    }
+
+    /**
+     * Bucket a count by order of magnitude, so the number of tag values stays bounded.
+     */
+    static String bucket(int count) {
+        if (count == 0) {
+            return "0";
+        }
+        int bound = 10;
+        while (count > bound && bound < 10_000) {
+            bound *= 10;
+        }
+        return count > bound ? ">" + bound : "<=" + bound;
+    }
+}
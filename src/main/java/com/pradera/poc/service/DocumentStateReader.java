@@ -0,0 +1,183 @@
+package com.pradera.poc.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pradera.poc.service.dto.DocumentNodeDTO;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streaming reader for editor document states.
+ * <p>
+ * The document is read token by token from the request body, so the top-level nodes are handed to the persistence
+ * layer as they are parsed, without holding the raw body or a {@link com.fasterxml.jackson.databind.JsonNode} tree of
+ * the whole document in memory.
+ */
+@Component
+public class DocumentStateReader {
+
+    private final ObjectMapper objectMapper;
+
+    public DocumentStateReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Open a document state and position the parser on its top-level {@code content} array.
+     *
+     * @param inputStream the document state, as sent by the editor.
+     * @return the top-level nodes of the document, parsed lazily while iterating.
+     * @throws InvalidDocumentStateException if the document is not valid JSON or has no {@code content} array.
+     */
+    public Iterator<DocumentNodeDTO> read(InputStream inputStream) {
+        try {
+            JsonParser parser = objectMapper.getFactory().createParser(inputStream);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new InvalidDocumentStateException("Document state must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("content".equals(field) && value == JsonToken.START_ARRAY) {
+                    return new NodeIterator(parser);
+                }
+                parser.skipChildren();
+            }
+            throw new InvalidDocumentStateException("Document state has no content");
+        } catch (IOException e) {
+            throw new InvalidDocumentStateException("Invalid document state", e);
+        }
+    }
+
+    private static DocumentNodeDTO readNode(JsonParser parser) throws IOException {
+        String type = null;
+        String text = null;
+        Long blockId = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "type":
+                    type = parser.getValueAsString();
+                    break;
+                case "attrs":
+                    blockId = readBlockId(parser);
+                    break;
+                case "content":
+                    text = readText(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        if (type == null) {
+            throw new InvalidDocumentStateException("Document node has no type");
+        }
+        return new DocumentNodeDTO(type, text == null ? "" : text, blockId);
+    }
+
+    private static Long readBlockId(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        Long blockId = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("blockId".equals(field)) {
+                // the editor defaults blockId to an empty string for nodes that were never saved
+                String value = parser.getValueAsString();
+                try {
+                    blockId = StringUtils.isEmpty(value) ? null : Long.valueOf(value);
+                } catch (NumberFormatException e) {
+                    throw new InvalidDocumentStateException("Invalid blockId: " + value, e);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return blockId;
+    }
+
+    /**
+     * Read the text of the first inline node, skipping the others.
+     */
+    private static String readText(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        String text = null;
+        boolean first = true;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (first && parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("text".equals(field)) {
+                        text = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            first = false;
+        }
+        return text;
+    }
+
+    private static final class NodeIterator implements Iterator<DocumentNodeDTO> {
+
+        private final JsonParser parser;
+
+        private DocumentNodeDTO next;
+
+        private boolean done;
+
+        private NodeIterator(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public DocumentNodeDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            DocumentNodeDTO node = next;
+            next = null;
+            return node;
+        }
+
+        private void advance() {
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_OBJECT) {
+                    next = readNode(parser);
+                } else if (token == JsonToken.END_ARRAY) {
+                    done = true;
+                    parser.close();
+                } else {
+                    throw new InvalidDocumentStateException("Document content must be an array of nodes");
+                }
+            } catch (IOException e) {
+                throw new InvalidDocumentStateException("Invalid document state", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.pradera.poc.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pradera.poc.service.dto.DocumentNodeDTO;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streaming writer for editor document states, the counterpart of {@link DocumentStateReader}.
+ * <p>
+ * The nodes are written one by one with a {@link JsonGenerator}, in the shape built by {@code blockListToDocState} in
+ * the webapp, so no tree of the whole document is built in memory.
+ */
+@Component
+public class DocumentStateWriter {
+
+    private final ObjectMapper objectMapper;
+
+    public DocumentStateWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write a document state.
+     *
+     * @param nodes the top-level nodes of the document, in order.
+     * @param outputStream the stream to write the document to, left open.
+     * @throws IOException if the document could not be written.
+     */
+    public void write(Iterator<DocumentNodeDTO> nodes, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("type", "doc");
+            generator.writeArrayFieldStart("content");
+            while (nodes.hasNext()) {
+                writeNode(generator, nodes.next());
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeNode(JsonGenerator generator, DocumentNodeDTO node) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", node.getType());
+        generator.writeObjectFieldStart("attrs");
+        generator.writeNumberField("blockId", node.getBlockId());
+        if ("heading".equals(node.getType())) {
+            generator.writeNumberField("level", 1);
+            generator.writeNullField("collapseContent");
+        }
+        generator.writeEndObject();
+        // the editor does not allow empty text nodes, an empty block is a node without content
+        if (StringUtils.isNotEmpty(node.getText())) {
+            generator.writeArrayFieldStart("content");
+            generator.writeStartObject();
+            generator.writeStringField("type", "text");
+            generator.writeStringField("text", node.getText());
+            generator.writeEndObject();
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+}
@@ -1,8 +1,14 @@
 package com.pradera.poc.service;
 
+import com.pradera.poc.domain.Flow;
 import com.pradera.poc.domain.FlowBlock;
 import com.pradera.poc.repository.FlowBlockRepository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -19,25 +25,44 @@ public class FlowBlockService {
 
     private final Logger log = LoggerFactory.getLogger(FlowBlockService.class);
 
+    private static final String FLOW_BLOCKS_CACHE = Flow.class.getName() + ".blocks";
+
     private final FlowBlockRepository flowBlockRepository;
 
-    public FlowBlockService(FlowBlockRepository flowBlockRepository) {
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final FlowDocumentCache flowDocumentCache;
+
+    public FlowBlockService(
+        FlowBlockRepository flowBlockRepository,
+        EntityManagerFactory entityManagerFactory,
+        FlowDocumentCache flowDocumentCache
+    ) {
         this.flowBlockRepository = flowBlockRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.flowDocumentCache = flowDocumentCache;
     }
 
     /**
-     * Save a flowBlock.
+     * Save a flowBlock, evicting the cached documents of its flow and, when it is moved to another flow, of its previous
+     * flow.
      *
      * @param flowBlock the entity to save.
      * @return the persisted entity.
      */
     public FlowBlock save(FlowBlock flowBlock) {
         log.debug("Request to save FlowBlock : {}", flowBlock);
+        if (flowBlock.getId() != null) {
+            evictDocument(flowBlock.getId());
+        }
+        if (flowBlock.getFlow() != null) {
+            flowDocumentCache.evict(flowBlock.getFlow().getId());
+        }
         return flowBlockRepository.save(flowBlock);
     }
 
     /**
-     * Partially update a flowBlock.
+     * Partially update a flowBlock, evicting the cached document of its flow.
      *
      * @param flowBlock the entity to update partially.
      * @return the persisted entity.
@@ -49,6 +74,9 @@ public class FlowBlockService {
             .findById(flowBlock.getId())
             .map(
                 existingFlowBlock -> {
+                    if (existingFlowBlock.getFlow() != null) {
+                        flowDocumentCache.evict(existingFlowBlock.getFlow().getId());
+                    }
                     if (flowBlock.getBlockOrder() != null) {
                         existingFlowBlock.setBlockOrder(flowBlock.getBlockOrder());
                     }
@@ -84,12 +112,244 @@ public class FlowBlockService {
     }
 
     /**
-     * Delete the flowBlock by id.
+     * Insert a flowBlock in its flow right after another flowBlock.
+     * <p>
+     * The new row takes the midpoint between the {@code blockOrder} of its neighbours, so no other row of the flow is
+     * written unless there is no room left between them, in which case the flow is renumbered first.
+     *
+     * @param flowBlock the new flowBlock, with its flow and block set.
+     * @param previousFlowBlockId the id of the flowBlock to insert after, or {@code null} to insert at the top of the flow.
+     * @return the persisted entity.
+     */
+    public FlowBlock insertAfter(FlowBlock flowBlock, Long previousFlowBlockId) {
+        log.debug("Request to insert FlowBlock : {} after : {}", flowBlock, previousFlowBlockId);
+        flowBlock.setBlockOrder(blockOrderAfter(flowBlock.getFlow().getId(), previousFlowBlockId, null));
+        flowDocumentCache.evict(flowBlock.getFlow().getId());
+        return flowBlockRepository.save(flowBlock);
+    }
+
+    /**
+     * Move a flowBlock right after another flowBlock of the same flow.
+     * <p>
+     * Only the moved row is written, unless there is no room left at the target position, in which case the flow is
+     * renumbered first.
+     *
+     * @param id the id of the flowBlock to move.
+     * @param previousFlowBlockId the id of the flowBlock to move after, or {@code null} to move to the top of the flow.
+     * @return the moved entity.
+     */
+    public Optional<FlowBlock> moveAfter(Long id, Long previousFlowBlockId) {
+        log.debug("Request to move FlowBlock : {} after : {}", id, previousFlowBlockId);
+        return flowBlockRepository
+            .findById(id)
+            .map(
+                flowBlock -> {
+                    flowBlock.setBlockOrder(blockOrderAfter(flowBlock.getFlow().getId(), previousFlowBlockId, flowBlock));
+                    flowDocumentCache.evict(flowBlock.getFlow().getId());
+                    return flowBlock;
+                }
+            );
+    }
+
+    /**
+     * Delete all the flowBlocks of a flow with a single statement.
+     * <p>
+     * The bulk delete bypasses the second level cache, so the cached {@code blocks} collection of the flow is evicted
+     * explicitly. Hibernate also invalidates the {@link FlowBlock} region once the transaction completes.
+     *
+     * @param flowId the id of the flow.
+     * @return the number of deleted flowBlocks.
+     */
+    public int deleteByFlowId(Long flowId) {
+        log.debug("Request to delete FlowBlocks of Flow : {}", flowId);
+        int deleted = flowBlockRepository.deleteByFlowId(flowId);
+        flowDocumentCache.evict(flowId);
+        entityManagerFactory.getCache().unwrap(Cache.class).evictCollectionData(FLOW_BLOCKS_CACHE, flowId);
+        return deleted;
+    }
+
+    /**
+     * Delete flowBlocks of a flow by id with a single statement, evicting the cached {@code blocks} collection of the
+     * flow like {@link #deleteByFlowId(Long)}.
+     *
+     * @param flowId the id of the flow of the flowBlocks.
+     * @param ids the ids of the flowBlocks.
+     * @return the number of deleted flowBlocks.
+     */
+    public int deleteByFlowIdAndIdIn(Long flowId, Collection<Long> ids) {
+        log.debug("Request to delete {} FlowBlocks of Flow : {}", ids.size(), flowId);
+        int deleted = flowBlockRepository.deleteByIdIn(ids);
+        flowDocumentCache.evict(flowId);
+        entityManagerFactory.getCache().unwrap(Cache.class).evictCollectionData(FLOW_BLOCKS_CACHE, flowId);
+        return deleted;
+    }
+
+    /**
+     * Renumber all the flowBlocks of a flow, spreading them {@link FlowBlock#BLOCK_ORDER_GAP} apart.
+     *
+     * @param flowId the id of the flow.
+     */
+    public void rebalance(Long flowId) {
+        log.debug("Request to rebalance FlowBlocks of Flow : {}", flowId);
+        List<FlowBlock> flowBlocks = flowBlockRepository.findByFlowIdWithBlocks(flowId);
+        for (int i = 0; i < flowBlocks.size(); i++) {
+            flowBlocks.get(i).setBlockOrder((i + 1) * FlowBlock.BLOCK_ORDER_GAP);
+        }
+    }
+
+    /**
+     * Assign the {@code blockOrder} of the flowBlocks of a flow, given in their new order.
+     * <p>
+     * The longest run of flowBlocks whose current order is already increasing keeps it; new and moved flowBlocks are
+     * spread in the gaps between them. The whole list is renumbered only when a gap is too small.
+     *
+     * @param flowBlocks all the flowBlocks of the flow, in order. New flowBlocks have no {@code blockOrder} yet.
+     */
+    public void assignBlockOrders(List<FlowBlock> flowBlocks) {
+        long[] blockOrders = computeBlockOrders(flowBlocks.stream().map(FlowBlock::getBlockOrder).collect(Collectors.toList()));
+        for (int i = 0; i < blockOrders.length; i++) {
+            flowBlocks.get(i).setBlockOrder(blockOrders[i]);
+        }
+    }
+
+    /**
+     * Compute the {@code blockOrder} of the flowBlocks of a flow from their current ones, given in their new order, see
+     * {@link #assignBlockOrders(List)}.
+     *
+     * @param currentBlockOrders the current {@code blockOrder} of all the flowBlocks of the flow, in their new order,
+     * {@code null} for new flowBlocks.
+     * @return the new {@code blockOrder} of the flowBlocks, in the same order.
+     */
+    public long[] computeBlockOrders(List<Long> currentBlockOrders) {
+        boolean[] anchors = longestIncreasingBlockOrders(currentBlockOrders);
+        long[] blockOrders = new long[currentBlockOrders.size()];
+        long lowerBound = 0;
+        int segmentStart = 0;
+        for (int i = 0; i <= blockOrders.length; i++) {
+            if (i < blockOrders.length && !anchors[i]) {
+                continue;
+            }
+            Long upperBound = i < blockOrders.length ? currentBlockOrders.get(i) : null;
+            if (!spread(blockOrders, segmentStart, i, lowerBound, upperBound)) {
+                log.debug("No room left between block orders {} and {}, renumbering flow", lowerBound, upperBound);
+                renumber(blockOrders);
+                return blockOrders;
+            }
+            if (upperBound != null) {
+                blockOrders[i] = upperBound;
+                lowerBound = upperBound;
+            }
+            segmentStart = i + 1;
+        }
+        return blockOrders;
+    }
+
+    private long blockOrderAfter(Long flowId, Long previousFlowBlockId, FlowBlock movedFlowBlock) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            long lowerBound = 0;
+            if (previousFlowBlockId != null) {
+                FlowBlock previous = flowBlockRepository
+                    .findById(previousFlowBlockId)
+                    .filter(flowBlock -> flowBlock.getFlow() != null && flowId.equals(flowBlock.getFlow().getId()))
+                    .orElseThrow(
+                        () -> new RuntimeException("FlowBlock with ID " + previousFlowBlockId + " not found in flow with ID " + flowId)
+                    );
+                lowerBound = previous.getBlockOrder();
+            }
+            Optional<FlowBlock> next = flowBlockRepository.findFirstByFlowIdAndBlockOrderGreaterThanOrderByBlockOrderAscIdAsc(
+                flowId,
+                lowerBound
+            );
+            if (next.isEmpty()) {
+                return lowerBound + FlowBlock.BLOCK_ORDER_GAP;
+            }
+            if (next.get().equals(movedFlowBlock)) {
+                return movedFlowBlock.getBlockOrder();
+            }
+            long upperBound = next.get().getBlockOrder();
+            if (upperBound - lowerBound >= 2) {
+                return lowerBound + (upperBound - lowerBound) / 2;
+            }
+            rebalance(flowId);
+        }
+        throw new IllegalStateException("No room left after FlowBlock " + previousFlowBlockId + " in flow " + flowId);
+    }
+
+    /**
+     * Spread the block orders of {@code [from, to)} between two bounds, {@code upperBound} being {@code null} after the
+     * last anchor.
+     */
+    private static boolean spread(long[] blockOrders, int from, int to, long lowerBound, Long upperBound) {
+        if (from == to) {
+            return true;
+        }
+        long step = upperBound == null ? FlowBlock.BLOCK_ORDER_GAP : (upperBound - lowerBound) / (to - from + 1);
+        if (step == 0) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            blockOrders[i] = lowerBound + step * (i - from + 1);
+        }
+        return true;
+    }
+
+    private static void renumber(long[] blockOrders) {
+        for (int i = 0; i < blockOrders.length; i++) {
+            blockOrders[i] = (i + 1) * FlowBlock.BLOCK_ORDER_GAP;
+        }
+    }
+
+    /**
+     * Mark the longest strictly increasing subsequence of the existing block orders (patience sorting, O(n log n)).
+     */
+    private static boolean[] longestIncreasingBlockOrders(List<Long> blockOrders) {
+        int n = blockOrders.size();
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            Long blockOrder = blockOrders.get(i);
+            if (blockOrder == null || blockOrder <= 0) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (blockOrders.get(tails[middle]) < blockOrder) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        boolean[] anchors = new boolean[n];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            anchors[i] = true;
+        }
+        return anchors;
+    }
+
+    /**
+     * Delete the flowBlock by id, evicting the cached document of its flow.
      *
      * @param id the id of the entity.
      */
     public void delete(Long id) {
         log.debug("Request to delete FlowBlock : {}", id);
+        evictDocument(id);
         flowBlockRepository.deleteById(id);
     }
+
+    private void evictDocument(Long flowBlockId) {
+        flowBlockRepository
+            .findById(flowBlockId)
+            .map(FlowBlock::getFlow)
+            .ifPresent(flow -> flowDocumentCache.evict(flow.getId()));
+    }
 }
@@ -0,0 +1,68 @@
+package com.pradera.poc.service;
+
+import com.pradera.poc.repository.FlowBlockRepository;
+import com.pradera.poc.service.dto.RenderedDocumentDTO;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Invalidation of the cache of the rendered documents of the flows, see {@link FlowService#renderDocState(Long)}.
+ * <p>
+ * A document is evicted right away, and again once the transaction that changed it commits, so a document rendered
+ * by a concurrent request before the commit is not kept in the cache.
+ */
+@Service
+public class FlowDocumentCache {
+
+    /**
+     * Cache of the {@link RenderedDocumentDTO} of the flows, by flow id.
+     */
+    public static final String DOCUMENTS_CACHE = "com.pradera.poc.domain.Flow.documents";
+
+    private final Logger log = LoggerFactory.getLogger(FlowDocumentCache.class);
+
+    private final CacheManager cacheManager;
+
+    private final FlowBlockRepository flowBlockRepository;
+
+    public FlowDocumentCache(CacheManager cacheManager, FlowBlockRepository flowBlockRepository) {
+        this.cacheManager = cacheManager;
+        this.flowBlockRepository = flowBlockRepository;
+    }
+
+    /**
+     * Evict the document of a flow.
+     *
+     * @param flowId the id of the flow.
+     */
+    public void evict(Long flowId) {
+        log.debug("Evicting the document of Flow : {}", flowId);
+        Cache documents = Objects.requireNonNull(cacheManager.getCache(DOCUMENTS_CACHE));
+        documents.evict(flowId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        documents.evict(flowId);
+                    }
+                }
+            );
+        }
+    }
+
+    /**
+     * Evict the documents of the flows containing a block.
+     *
+     * @param blockId the id of the block.
+     */
+    public void evictFlowsContaining(Long blockId) {
+        flowBlockRepository.findFlowIdsByBlockId(blockId).forEach(this::evict);
+    }
+}
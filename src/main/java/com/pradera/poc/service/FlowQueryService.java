@@ -10,6 +10,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -58,6 +60,22 @@ public class FlowQueryService extends QueryService<Flow> {
         return flowRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link Slice} of {@link Flow} which matches the criteria from the database, ordered by id and starting after
+     * the given id, without counting the matching entities.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after The id of the last entity of the previous slice, {@code null} for the first slice.
+     * @param page The size and the direction of the id order of the slice.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Flow> findByCriteria(FlowCriteria criteria, Long after, Pageable page) {
+        log.debug("find by criteria : {}, after: {}, page: {}", criteria, after, page);
+        Sort.Direction direction = KeysetPagination.direction(page.getSort(), Flow_.ID);
+        final Specification<Flow> specification = createSpecification(criteria).and(KeysetPagination.after(Flow_.id, after, direction));
+        return flowRepository.findSlice(specification, KeysetPagination.pageRequest(page, direction, Flow_.ID));
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -1,24 +1,47 @@
 package com.pradera.poc.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.pradera.poc.config.ApplicationProperties;
 import com.pradera.poc.domain.Block;
 import com.pradera.poc.domain.Flow;
 import com.pradera.poc.domain.FlowBlock;
+import com.pradera.poc.domain.FlowSnapshot;
 import com.pradera.poc.domain.User;
 import com.pradera.poc.domain.enumeration.BlockType;
 import com.pradera.poc.repository.BlockRepository;
 import com.pradera.poc.repository.FlowBlockRepository;
 import com.pradera.poc.repository.FlowRepository;
+import com.pradera.poc.repository.FlowSnapshotRepository;
 import com.pradera.poc.repository.UserRepository;
+import com.pradera.poc.service.dto.DocumentNodeDTO;
+import com.pradera.poc.service.dto.FlowBlockRowDTO;
+import com.pradera.poc.service.dto.RenderedDocumentDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.ZonedDateTime;
-import java.util.LinkedHashSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -33,21 +56,64 @@ public class FlowService {
 
     private final Logger log = LoggerFactory.getLogger(FlowService.class);
 
+    /**
+     * Maximum number of hashes bound in a single {@code in} clause when looking up existing blocks.
+     */
+    private static final int HASH_LOOKUP_CHUNK_SIZE = 500;
+
+    /**
+     * Maximum number of nodes of a written document whose contents stored as deltas are reconstructed together.
+     */
+    private static final int RECONSTRUCTION_CHUNK_SIZE = 500;
+
     private final FlowRepository flowRepository;
     private final BlockRepository blockRepository;
     private final FlowBlockRepository flowBlockRepository;
     private final UserRepository userRepository;
+    private final FlowBlockService flowBlockService;
+    private final DocumentStateWriter documentStateWriter;
+    private final FlowSnapshotRepository flowSnapshotRepository;
+    private final BlockService blockService;
+    private final FlowDocumentCache flowDocumentCache;
+    private final MeterRegistry meterRegistry;
+    private final EntityManager entityManager;
+    private final ApplicationProperties.FlowSnapshot flowSnapshotProperties;
+    private final ApplicationProperties.FlowDocument flowDocumentProperties;
+
+    /**
+     * Number of nodes saved between two flushes of the persistence context, see
+     * {@link #updateDocState(String, Long, Iterator)}.
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int chunkSize;
 
     public FlowService(
         FlowRepository flowRepository,
         BlockRepository blockRepository,
         FlowBlockRepository flowBlockRepository,
-        UserRepository userRepository
+        UserRepository userRepository,
+        FlowBlockService flowBlockService,
+        DocumentStateWriter documentStateWriter,
+        FlowSnapshotRepository flowSnapshotRepository,
+        BlockService blockService,
+        FlowDocumentCache flowDocumentCache,
+        MeterRegistry meterRegistry,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties
     ) {
         this.flowRepository = flowRepository;
         this.blockRepository = blockRepository;
         this.flowBlockRepository = flowBlockRepository;
         this.userRepository = userRepository;
+        this.flowBlockService = flowBlockService;
+        this.documentStateWriter = documentStateWriter;
+        this.flowSnapshotRepository = flowSnapshotRepository;
+        this.blockService = blockService;
+        this.flowDocumentCache = flowDocumentCache;
+        this.meterRegistry = meterRegistry;
+        this.entityManager = entityManager;
+        this.flowSnapshotProperties = applicationProperties.getFlowSnapshot();
+        this.flowDocumentProperties = applicationProperties.getFlowDocument();
     }
 
     /**
@@ -108,87 +174,516 @@ public class FlowService {
         return flowRepository.findById(id);
     }
 
+    /**
+     * Write the blocks of a flow as an editor document state.
+     * <p>
+     * The document is read from the {@link FlowSnapshot} of the flow, written by its last
+     * {@link #updateDocState(String, Long, Iterator)}, unless the flowBlocks of the flow changed since then or snapshots
+     * are disabled by {@code application.flow-snapshot.enabled}. Otherwise
+     * the ordered blocks are read with a single query and streamed to the output with {@link DocumentStateWriter}. In
+     * both cases no {@link Block} entity is loaded.
+     *
+     * @param id the id of the flow.
+     * @param outputStream the stream to write the document state to.
+     * @throws IOException if the document state could not be written.
+     */
+    @Transactional(readOnly = true)
+    public void writeDocState(Long id, OutputStream outputStream) throws IOException {
+        log.debug("Request to write the document state of Flow : {}", id);
+        Optional<List<DocumentNodeDTO>> snapshot = flowSnapshotProperties.isEnabled() ? findSnapshot(id) : Optional.empty();
+        if (snapshot.isPresent()) {
+            documentStateWriter.write(snapshot.get().iterator(), outputStream);
+            return;
+        }
+        try (Stream<DocumentNodeDTO> nodes = flowBlockRepository.streamDocumentNodesByFlowId(id)) {
+            documentStateWriter.write(new ReconstructingIterator(nodes.iterator()), outputStream);
+        }
+    }
+
+    /**
+     * Iterator over the nodes of a document whose contents stored as deltas are reconstructed a chunk of
+     * {@link #RECONSTRUCTION_CHUNK_SIZE} nodes at a time, with {@link BlockService#reconstructContents(Collection)}.
+     */
+    private final class ReconstructingIterator implements Iterator<DocumentNodeDTO> {
+
+        private final Iterator<DocumentNodeDTO> nodes;
+
+        private final List<DocumentNodeDTO> chunk = new ArrayList<>(RECONSTRUCTION_CHUNK_SIZE);
+
+        private int next;
+
+        private ReconstructingIterator(Iterator<DocumentNodeDTO> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == chunk.size()) {
+                readChunk();
+            }
+            return next < chunk.size();
+        }
+
+        @Override
+        public DocumentNodeDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk.get(next++);
+        }
+
+        private void readChunk() {
+            chunk.clear();
+            next = 0;
+            List<Long> deltaEncodedIds = new ArrayList<>();
+            while (chunk.size() < RECONSTRUCTION_CHUNK_SIZE && nodes.hasNext()) {
+                DocumentNodeDTO node = nodes.next();
+                // the content of a revision stored as a delta is read as null
+                if (node.getText() == null) {
+                    deltaEncodedIds.add(node.getBlockId());
+                }
+                chunk.add(node);
+            }
+            if (deltaEncodedIds.isEmpty()) {
+                return;
+            }
+            Map<Long, String> contents = blockService.reconstructContents(deltaEncodedIds);
+            chunk.replaceAll(
+                node ->
+                    node.getText() != null
+                        ? node
+                        : new DocumentNodeDTO(node.getType(), contents.get(node.getBlockId()), node.getBlockId())
+            );
+        }
+    }
+
+    /**
+     * Render the blocks of a flow as an editor document state, see {@link #writeDocState(Long, OutputStream)}.
+     * <p>
+     * Rendered documents are cached in {@link FlowDocumentCache#DOCUMENTS_CACHE} until the flow, its flowBlocks or its
+     * blocks change. The document is digested as it is written, and its JSON is only kept up to
+     * {@code application.flow-document.max-cached-size}: a larger document is cached with its entity tag alone, and
+     * must be streamed with {@link #writeDocState(Long, OutputStream)}.
+     *
+     * @param id the id of the flow.
+     * @return the rendered document, without its JSON if it is too large, or empty if the flow does not exist.
+     * @throws IOException if the document state could not be written.
+     */
+    @Cacheable(cacheNames = FlowDocumentCache.DOCUMENTS_CACHE, unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<RenderedDocumentDTO> renderDocState(Long id) throws IOException {
+        log.debug("Request to render the document state of Flow : {}", id);
+        if (!flowRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        RenderingOutputStream json = new RenderingOutputStream(flowDocumentProperties.getMaxCachedSize().toBytes());
+        writeDocState(id, json);
+        return Optional.of(json.toRenderedDocument());
+    }
+
+    /**
+     * Output stream digesting a rendered document, and keeping its bytes until they exceed a maximum size.
+     */
+    private static final class RenderingOutputStream extends OutputStream {
+
+        private final MessageDigest digest;
+
+        private final long maxSize;
+
+        private ByteArrayOutputStream json = new ByteArrayOutputStream();
+
+        private RenderingOutputStream(long maxSize) {
+            try {
+                this.digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            digest.update(b, off, len);
+            if (json != null && json.size() + len > maxSize) {
+                json = null;
+            }
+            if (json != null) {
+                json.write(b, off, len);
+            }
+        }
+
+        private RenderedDocumentDTO toRenderedDocument() {
+            return new RenderedDocumentDTO(json != null ? json.toByteArray() : null, RenderedDocumentDTO.eTag(digest.digest()));
+        }
+    }
+
+    /**
+     * Read the snapshot of a flow, if it still has the blocks of the flow in the same order and was written in the
+     * current {@link FlowSnapshotCodec} format.
+     * <p>
+     * The ordered block ids of the flow are read from the flowBlock index alone, without joining the blocks. The
+     * content of the blocks is not checked: blocks are only edited in place through {@link BlockService}, which deletes
+     * the snapshots of the flows containing them.
+     */
+    private Optional<List<DocumentNodeDTO>> findSnapshot(Long id) {
+        Optional<byte[]> data = flowSnapshotRepository.findDataByFlowId(id);
+        if (data.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<List<DocumentNodeDTO>> snapshot;
+        try {
+            snapshot = Optional.of(FlowSnapshotCodec.decode(data.get()));
+        } catch (IllegalArgumentException e) {
+            log.debug("Snapshot of Flow : {} is not readable: {}", id, e.getMessage());
+            return Optional.empty();
+        }
+        List<Long> snapshotBlockIds = snapshot.get().stream().map(DocumentNodeDTO::getBlockId).collect(Collectors.toList());
+        if (!snapshotBlockIds.equals(flowBlockRepository.findBlockIdsByFlowId(id))) {
+            log.debug("Snapshot of Flow : {} is stale", id);
+            return Optional.empty();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Update the blocks of a flow from an editor document state.
+     * <p>
+     * The incoming document is diffed against the current ordered {@link FlowBlock} list of the flow, so only the rows
+     * whose block or position changed are written: edited nodes get a new {@link Block} revision, new nodes get a new
+     * {@link FlowBlock}, and the rows of nodes no longer present in the document are deleted. Positions are assigned by
+     * {@link FlowBlockService#computeBlockOrders(List)}, so inserting or moving a node does not renumber the flow.
+     * <p>
+     * Blocks are content addressed by {@link BlockHasher}: when the user already has a block with the same type and
+     * content, that block is reused instead of storing a duplicate. Unchanged nodes are detected by comparing their hash
+     * with the hash of their block, so the content of a block is only read when the hashes differ.
+     * <p>
+     * The nodes are saved in chunks of {@code hibernate.jdbc.batch_size}, and the persistence context is flushed and
+     * cleared after each chunk, so the entities and texts held at once are bounded by a chunk. For the whole document,
+     * only the ids and positions of its rows are kept, to assign the positions once all the nodes are known, and the
+     * encoded {@link FlowSnapshot} of the flow, see {@link FlowSnapshotCodec}. The snapshot is not written when no row
+     * of the flow changed and the flow already has one, nor when snapshots are disabled by
+     * {@code application.flow-snapshot.enabled}. The cached rendering of the document is evicted, see
+     * {@link FlowDocumentCache}.
+     * <p>
+     * The save is timed until its transaction completes, see {@link DocStateUpdateTimer}.
+     *
+     * @param currentUser the login of the user saving the document.
+     * @param id the id of the flow.
+     * @param nodes the top-level nodes of the editor document state, see {@link DocumentStateReader}.
+     * @return the updated flow.
+     * @throws InvalidDocumentStateException if a node has an unknown type or a block that is not in the flow.
+     */
     @Transactional
-    public Optional<Flow> updateDocState(String currentUser, Long id, JsonNode docStateJson) throws JsonProcessingException {
-        log.debug("updateDocState: {}, {}", id, docStateJson);
+    public Optional<Flow> updateDocState(String currentUser, Long id, Iterator<DocumentNodeDTO> nodes) {
+        log.debug("updateDocState: {}", id);
+        DocStateUpdateTimer timer = DocStateUpdateTimer.start(meterRegistry);
 
         User user = userRepository.findOneByLogin(currentUser).orElseThrow();
+        Flow flow = findOne(id).orElseThrow();
 
-        //TODO load all nodes in flow
-        Map<Long, Block> blocksInFlow = blockRepository.findByFlowId(id).stream().collect(Collectors.toMap(Block::getId, block -> block));
-        //delete existing flow
-        flowBlockRepository.deleteByFlowId(id);
+        Map<Long, FlowBlockRowDTO> blocksInFlow = new HashMap<>();
+        Map<Long, Deque<FlowBlockRowDTO>> unclaimedFlowBlocks = new LinkedHashMap<>();
+        for (FlowBlockRowDTO flowBlock : flowBlockRepository.findRowsByFlowId(id)) {
+            blocksInFlow.putIfAbsent(flowBlock.getBlockId(), flowBlock);
+            unclaimedFlowBlocks.computeIfAbsent(flowBlock.getBlockId(), blockId -> new ArrayDeque<>()).add(flowBlock);
+        }
 
-        Flow flow = findOne(id).orElseThrow();
-        flow.blocks(new LinkedHashSet<>());
-        if (!flow.getBlocks().isEmpty()) {
-            throw new RuntimeException("flow must not have any blocks at this point");
-        }
-        JsonNode content = docStateJson.get("content");
-        long order = 1;
-        for (JsonNode contentItem : content) {
-            log.debug("item: {}", contentItem);
-            JsonNode attrs = contentItem.get("attrs");
-            JsonNode blockIdNode = attrs.get("blockId");
-            String nodeType = contentItem.get("type").asText();
-
-            JsonNode itemContent = contentItem.get("content");
-            String nodeText = itemContent.get(0).get("text").asText();
-            Block currentBlock;
-            if (blockIdNode != null) {
-                long blockId = blockIdNode.asLong();
-                if (!blocksInFlow.containsKey(blockId)) {
-                    throw new RuntimeException("Block with ID " + blockId + " not found in flow with ID " + id);
-                }
-                Block existingBlock = blocksInFlow.get(blockId);
-
-                currentBlock = existingBlock;
-                //did  the node changed? if so create a new one based in the last one
-                if (
-                    !StringUtils.equals(existingBlock.getContent(), nodeText) ||
-                    !StringUtils.equals(nodeType, existingBlock.getType().toEditorType())
-                ) {
-                    Block newBlock = Block.Builder
-                        .aBlock()
-                        .type(BlockType.fromString(nodeType))
-                        .content(nodeText)
-                        .parent(existingBlock)
-                        .user(user)
-                        .hash("seudohash")
-                        .createdDate(ZonedDateTime.now())
-                        .build();
-                    //  if block created attach to flow
-                    blockRepository.save(newBlock);
-                    currentBlock = newBlock;
+        FlowSnapshotCodec.Encoder snapshot = flowSnapshotProperties.isEnabled() ? new FlowSnapshotCodec.Encoder() : null;
+        List<DocumentRow> document = new ArrayList<>();
+        List<DocumentRow> chunk = new ArrayList<>(chunkSize);
+        while (nodes.hasNext()) {
+            DocumentNodeDTO node = nodes.next();
+            log.debug("item: {}", node);
+            DocumentRow row = readNode(id, node, blocksInFlow, unclaimedFlowBlocks);
+            timer.node(row.blockId == null);
+            document.add(row);
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                saveBlocks(user, chunk, snapshot);
+                chunk.clear();
+            }
+        }
+        saveBlocks(user, chunk, snapshot);
+
+        boolean changed = saveFlowBlocks(id, document);
+        List<Long> removedFlowBlockIds = unclaimedFlowBlocks
+            .values()
+            .stream()
+            .flatMap(Collection::stream)
+            .map(FlowBlockRowDTO::getId)
+            .collect(Collectors.toList());
+        if (!removedFlowBlockIds.isEmpty()) {
+            changed = true;
+            log.debug("removing {} blocks from flow {}", removedFlowBlockIds.size(), id);
+            for (int from = 0; from < removedFlowBlockIds.size(); from += chunkSize) {
+                List<Long> ids = removedFlowBlockIds.subList(from, Math.min(from + chunkSize, removedFlowBlockIds.size()));
+                flowBlockService.deleteByFlowIdAndIdIn(id, ids);
+            }
+        }
+
+        if (snapshot != null) {
+            saveSnapshot(id, snapshot, changed);
+        }
+        flowDocumentCache.evict(id);
+        return Optional.of(flow);
+    }
+
+    /**
+     * Match a node of a document with the current rows of the flow.
+     * <p>
+     * The block of the node is kept when it has the type and content of the node. Otherwise it is loaded, as the parent
+     * of the new revision of the node.
+     */
+    private DocumentRow readNode(
+        Long id,
+        DocumentNodeDTO node,
+        Map<Long, FlowBlockRowDTO> blocksInFlow,
+        Map<Long, Deque<FlowBlockRowDTO>> unclaimedFlowBlocks
+    ) {
+        BlockType type;
+        try {
+            type = BlockType.fromString(node.getType());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDocumentStateException("Unknown node type: " + node.getType(), e);
+        }
+        String text = BlockHasher.normalize(node.getText());
+        DocumentRow row = new DocumentRow(type, text, BlockHasher.hash(type, text));
+        Long blockId = node.getBlockId();
+        if (blockId == null) {
+            return row;
+        }
+        FlowBlockRowDTO current = blocksInFlow.get(blockId);
+        if (current == null) {
+            throw new InvalidDocumentStateException("Block with ID " + blockId + " not found in flow with ID " + id);
+        }
+        FlowBlockRowDTO flowBlock = unclaimedFlowBlocks.get(blockId).poll();
+        if (flowBlock != null) {
+            row.flowBlockId = flowBlock.getId();
+            row.currentBlockId = blockId;
+            row.currentBlockOrder = flowBlock.getBlockOrder();
+        }
+        if (row.hash.equals(current.getBlockHash())) {
+            row.blockId = blockId;
+            return row;
+        }
+        Block block = blockRepository.findById(blockId).orElseThrow();
+        // blocks written before content hashing was introduced still have a placeholder hash
+        if (type == block.getType() && StringUtils.equals(blockService.getContent(block), text)) {
+            row.blockId = blockId;
+        } else {
+            //did  the node changed? if so create a new one based in the last one
+            row.parent = block;
+        }
+        return row;
+    }
+
+    /**
+     * Save the new blocks of a chunk of the document, add its nodes to the snapshot when snapshots are enabled, then
+     * flush and clear the persistence context.
+     * <p>
+     * The blocks of the user that already have the same content are reused, including the blocks saved by the previous
+     * chunks, which were flushed. A content repeated in the chunk is stored once.
+     */
+    private void saveBlocks(User user, List<DocumentRow> chunk, FlowSnapshotCodec.Encoder snapshot) {
+        Map<String, Block> newBlocksByHash = new LinkedHashMap<>();
+        for (DocumentRow row : chunk) {
+            if (row.blockId == null) {
+                newBlocksByHash.computeIfAbsent(row.hash, hash -> newBlock(user, row.type, row.text, hash, row.parent));
+            }
+        }
+        Map<String, Block> existingBlocksByHash = findBlocksByHash(user, newBlocksByHash.keySet());
+        if (!existingBlocksByHash.isEmpty()) {
+            log.debug("reusing {} existing blocks", existingBlocksByHash.size());
+            newBlocksByHash.keySet().removeAll(existingBlocksByHash.keySet());
+        }
+        newBlocksByHash.values().forEach(blockService::encodeRevision);
+        blockRepository.saveAll(newBlocksByHash.values());
+        for (DocumentRow row : chunk) {
+            if (row.blockId == null) {
+                row.blockId = existingBlocksByHash.getOrDefault(row.hash, newBlocksByHash.get(row.hash)).getId();
+            }
+            if (snapshot != null) {
+                snapshot.add(row.type, row.text, row.blockId);
+            }
+            row.saved();
+        }
+        flushAndClear();
+    }
+
+    /**
+     * Assign the positions of the rows of the document, then write the rows whose block or position changed, a chunk
+     * at a time.
+     *
+     * @return whether a row was written.
+     */
+    private boolean saveFlowBlocks(Long id, List<DocumentRow> document) {
+        long[] blockOrders = flowBlockService.computeBlockOrders(
+            document.stream().map(row -> row.currentBlockOrder).collect(Collectors.toList())
+        );
+        List<DocumentRow> chunk = new ArrayList<>(chunkSize);
+        boolean changed = false;
+        for (int i = 0; i < document.size(); i++) {
+            DocumentRow row = document.get(i);
+            row.blockOrder = blockOrders[i];
+            if (row.isChanged()) {
+                changed = true;
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    writeFlowBlocks(id, chunk);
+                    chunk.clear();
                 }
-            } else {
-                Block newBlock = Block.Builder
-                    .aBlock()
-                    .type(BlockType.fromString(nodeType))
-                    .content(nodeText)
-                    .user(user)
-                    .createdDate(ZonedDateTime.now())
-                    .hash("seudohash")
-                    .build();
-                blockRepository.save(newBlock);
-                currentBlock = newBlock;
             }
+        }
+        writeFlowBlocks(id, chunk);
+        return changed;
+    }
 
-            FlowBlock flowBlock = FlowBlock.Builder.aFlowBlock().block(currentBlock).flow(flow).blockOrder(order).build();
-            flowBlockRepository.save(flowBlock);
+    /**
+     * Write the snapshot of a saved document, unless no row of the flow changed and the flow already has a snapshot. The
+     * previous snapshot is replaced in place, without being read.
+     */
+    private void saveSnapshot(Long id, FlowSnapshotCodec.Encoder snapshot, boolean changed) {
+        if (!changed && flowSnapshotRepository.existsById(id)) {
+            log.debug("Flow : {} is unchanged, keeping its snapshot", id);
+            return;
+        }
+        byte[] data = snapshot.encode();
+        if (flowSnapshotRepository.updateData(id, data) == 0) {
+            flowSnapshotRepository.save(new FlowSnapshot().flowId(id).data(data));
+        }
+    }
+
+    private void writeFlowBlocks(Long id, List<DocumentRow> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Long> flowBlockIds = chunk.stream().map(row -> row.flowBlockId).filter(Objects::nonNull).collect(Collectors.toList());
+        Map<Long, FlowBlock> flowBlocks = new HashMap<>();
+        if (!flowBlockIds.isEmpty()) {
+            flowBlockRepository.findByIdInWithBlocks(flowBlockIds).forEach(flowBlock -> flowBlocks.put(flowBlock.getId(), flowBlock));
+        }
+        List<FlowBlock> newFlowBlocks = new ArrayList<>();
+        for (DocumentRow row : chunk) {
+            if (row.flowBlockId == null) {
+                newFlowBlocks.add(
+                    FlowBlock.Builder
+                        .aFlowBlock()
+                        .flow(flowRepository.getOne(id))
+                        .block(blockRepository.getOne(row.blockId))
+                        .blockOrder(row.blockOrder)
+                        .build()
+                );
+                continue;
+            }
+            FlowBlock flowBlock = flowBlocks.get(row.flowBlockId);
+            if (!row.blockId.equals(row.currentBlockId)) {
+                flowBlock.setBlock(blockRepository.getOne(row.blockId));
+            }
+            flowBlock.setBlockOrder(row.blockOrder);
+        }
+        flowBlockRepository.saveAll(newFlowBlocks);
+        flushAndClear();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Build a new block.
+     */
+    private Block newBlock(User user, BlockType type, String content, String hash, Block parent) {
+        return Block.Builder
+            .aBlock()
+            .type(type)
+            .content(content)
+            .parent(parent)
+            .user(user)
+            .hash(hash)
+            .createdDate(ZonedDateTime.now())
+            .build()
+            .inheritLineage(parent);
+    }
+
+    /**
+     * Find the existing blocks of a user by content hash, keeping the oldest block when there are duplicates.
+     */
+    private Map<String, Block> findBlocksByHash(User user, Collection<String> hashes) {
+        Map<String, Block> blocksByHash = new HashMap<>();
+        List<String> pending = new ArrayList<>(hashes);
+        for (int from = 0; from < pending.size(); from += HASH_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = pending.subList(from, Math.min(from + HASH_LOOKUP_CHUNK_SIZE, pending.size()));
+            for (Block block : blockRepository.findByUserIdAndHashIn(user.getId(), chunk)) {
+                blocksByHash.merge(block.getHash(), block, (a, b) -> a.getId() < b.getId() ? a : b);
+            }
+        }
+        return blocksByHash;
+    }
+
+    /**
+     * A node of a saved document and its row in the flow. The type, text and hash of the node and the parent of its new
+     * revision are only held until the chunk of the node is saved.
+     */
+    private static final class DocumentRow {
+
+        private BlockType type;
+
+        private String text;
+
+        private String hash;
+
+        private Block parent;
+
+        /**
+         * The block of the node, {@code null} until it is saved when the node needs a new block.
+         */
+        private Long blockId;
+
+        /**
+         * The flowBlock of the node, {@code null} for a new row.
+         */
+        private Long flowBlockId;
+
+        private Long currentBlockId;
+
+        private Long currentBlockOrder;
+
+        private long blockOrder;
+
+        private DocumentRow(BlockType type, String text, String hash) {
+            this.type = type;
+            this.text = text;
+            this.hash = hash;
+        }
+
+        private void saved() {
+            type = null;
+            text = null;
+            hash = null;
+            parent = null;
+        }
 
-            order++;
+        private boolean isChanged() {
+            return flowBlockId == null || !blockId.equals(currentBlockId) || blockOrder != currentBlockOrder;
         }
-        return findOne(id);
     }
 
     /**
-     * Delete the flow by id.
+     * Delete the flow by id, with its flowBlocks, its snapshot and its cached document.
      *
      * @param id the id of the entity.
      */
     public void delete(Long id) {
         log.debug("Request to delete Flow : {}", id);
+        flowDocumentCache.evict(id);
+        flowSnapshotRepository.deleteByFlowId(id);
+        flowBlockService.deleteByFlowId(id);
         flowRepository.deleteById(id);
     }
 }
@@ -0,0 +1,233 @@
+package com.pradera.poc.service;
+
+import com.pradera.poc.domain.FlowSnapshot;
+import com.pradera.poc.domain.enumeration.BlockType;
+import com.pradera.poc.service.dto.DocumentNodeDTO;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary encoding of the document of a flow, stored in a {@link FlowSnapshot}.
+ * <p>
+ * A snapshot is a format version byte and a compression byte followed by the body: the table of the {@link BlockType}
+ * names used by the document, as their number then each length-prefixed name, then the number of nodes, then for each
+ * node the index of its type in the table, its block id as the zig-zag encoded difference with the previous block id,
+ * and its length-prefixed UTF-8 text. Types are stored by name, like the {@code type} column of {@code block}, so
+ * snapshots stay readable when the enumeration is reordered or extended. Counts, lengths, indexes and ids are unsigned
+ * LEB128 varints. Bodies of at least {@link #COMPRESSION_THRESHOLD} bytes are Deflate compressed, when that makes them
+ * smaller.
+ */
+public final class FlowSnapshotCodec {
+
+    static final byte FORMAT_VERSION = 2;
+
+    static final byte UNCOMPRESSED = 0;
+
+    static final byte DEFLATED = 1;
+
+    static final int COMPRESSION_THRESHOLD = 256;
+
+    private static final int HEADER_LENGTH = 2;
+
+    private FlowSnapshotCodec() {}
+
+    /**
+     * Encode the nodes of a document.
+     *
+     * @param nodes the top-level nodes of the document, in order, all with a block id.
+     * @return the encoded snapshot.
+     */
+    public static byte[] encode(List<DocumentNodeDTO> nodes) {
+        Encoder encoder = new Encoder();
+        for (DocumentNodeDTO node : nodes) {
+            encoder.add(BlockType.fromString(node.getType()), node.getText(), node.getBlockId());
+        }
+        return encoder.encode();
+    }
+
+    /**
+     * Decode a snapshot.
+     *
+     * @param snapshot a snapshot written by {@link #encode(List)}.
+     * @return the top-level nodes of the document, in order.
+     * @throws IllegalArgumentException if the snapshot is not a valid snapshot of this format version, or has an
+     * unknown type.
+     */
+    public static List<DocumentNodeDTO> decode(byte[] snapshot) {
+        if (snapshot.length < HEADER_LENGTH || snapshot[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported flow snapshot format");
+        }
+        try {
+            byte[] body = snapshot[1] == DEFLATED ? inflate(snapshot) : snapshot;
+            int[] position = { HEADER_LENGTH };
+            BlockType[] types = new BlockType[(int) readVarint(body, position)];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = BlockType.valueOf(readString(body, position));
+            }
+            int count = (int) readVarint(body, position);
+            List<DocumentNodeDTO> nodes = new ArrayList<>(count);
+            long blockId = 0;
+            for (int i = 0; i < count; i++) {
+                BlockType type = types[(int) readVarint(body, position)];
+                blockId += unZigZag(readVarint(body, position));
+                nodes.add(new DocumentNodeDTO(type, readString(body, position), blockId));
+            }
+            return nodes;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated flow snapshot", e);
+        }
+    }
+
+    /**
+     * Encoder of the nodes of a document added one at a time, so they do not need to be held in memory together: only
+     * their encoded bytes are.
+     */
+    public static final class Encoder {
+
+        private final ByteArrayOutputStream nodes = new ByteArrayOutputStream();
+
+        private final List<BlockType> types = new ArrayList<>();
+
+        private final Map<BlockType, Integer> typeIndexes = new EnumMap<>(BlockType.class);
+
+        private int count;
+
+        private long previousBlockId;
+
+        /**
+         * Add the next node of the document.
+         *
+         * @param type the type of the block of the node.
+         * @param text the text of the node.
+         * @param blockId the id of the block of the node.
+         */
+        public void add(BlockType type, String text, long blockId) {
+            Integer typeIndex = typeIndexes.get(type);
+            if (typeIndex == null) {
+                typeIndex = types.size();
+                types.add(type);
+                typeIndexes.put(type, typeIndex);
+            }
+            writeVarint(nodes, typeIndex);
+            writeVarint(nodes, zigZag(blockId - previousBlockId));
+            previousBlockId = blockId;
+            writeString(nodes, text);
+            count++;
+        }
+
+        /**
+         * Encode the nodes added so far.
+         *
+         * @return the encoded snapshot.
+         */
+        public byte[] encode() {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(HEADER_LENGTH + 64 + nodes.size());
+            body.write(FORMAT_VERSION);
+            body.write(UNCOMPRESSED);
+            writeVarint(body, types.size());
+            for (BlockType type : types) {
+                writeString(body, type.name());
+            }
+            writeVarint(body, count);
+            byte[] encodedNodes = nodes.toByteArray();
+            body.write(encodedNodes, 0, encodedNodes.length);
+            byte[] snapshot = body.toByteArray();
+            if (snapshot.length - HEADER_LENGTH < COMPRESSION_THRESHOLD) {
+                return snapshot;
+            }
+            byte[] deflated = deflate(snapshot);
+            return deflated.length < snapshot.length ? deflated : snapshot;
+        }
+    }
+
+    private static byte[] deflate(byte[] snapshot) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(snapshot, HEADER_LENGTH, snapshot.length - HEADER_LENGTH);
+            deflater.finish();
+            ByteArrayOutputStream deflated = new ByteArrayOutputStream(snapshot.length / 2);
+            deflated.write(FORMAT_VERSION);
+            deflated.write(DEFLATED);
+            writeVarint(deflated, snapshot.length - HEADER_LENGTH);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                deflated.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return deflated.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Inflate a compressed snapshot into an uncompressed one, header included.
+     */
+    private static byte[] inflate(byte[] snapshot) {
+        int[] position = { HEADER_LENGTH };
+        int length = (int) readVarint(snapshot, position);
+        byte[] body = new byte[HEADER_LENGTH + length];
+        body[0] = FORMAT_VERSION;
+        body[1] = UNCOMPRESSED;
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(snapshot, position[0], snapshot.length - position[0]);
+            int inflated = inflater.inflate(body, HEADER_LENGTH, length);
+            if (inflated != length || !inflater.finished()) {
+                throw new IllegalArgumentException("Truncated flow snapshot");
+            }
+            return body;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupted flow snapshot", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(byte[] bytes, int[] position) {
+        int length = (int) readVarint(bytes, position);
+        String value = new String(bytes, position[0], length, StandardCharsets.UTF_8);
+        position[0] += length;
+        return value;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in flow snapshot");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,14 @@
+package com.pradera.poc.service;
+
+public class InvalidDocumentStateException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidDocumentStateException(String message) {
+        super(message);
+    }
+
+    public InvalidDocumentStateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,96 @@
+package com.pradera.poc.service;
+
+import javax.persistence.criteria.Path;
+import javax.persistence.metamodel.SingularAttribute;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Keyset (seek) pagination: instead of skipping the rows of the previous pages, each page starts after the sort key
+ * of the last row of the previous one, so deep pages are read with an index seek.
+ * <p>
+ * Listings are ordered by a key followed by the id, which makes the order total; the direction of the order is taken
+ * from the requested sort of the key.
+ */
+public final class KeysetPagination {
+
+    private KeysetPagination() {}
+
+    /**
+     * Get the direction of the keyset order.
+     *
+     * @param sort the requested sort.
+     * @param property the first property of the keyset.
+     * @return the direction of {@code property} in {@code sort}, ascending if it is not sorted by it.
+     */
+    public static Sort.Direction direction(Sort sort, String property) {
+        Sort.Order order = sort.getOrderFor(property);
+        return order == null ? Sort.Direction.ASC : order.getDirection();
+    }
+
+    /**
+     * Get the page request of a keyset page.
+     *
+     * @param pageable the requested pagination, only its size is kept.
+     * @param direction the direction of the keyset order.
+     * @param properties the properties of the keyset.
+     * @return the first page of the given size, sorted by the keyset.
+     */
+    public static Pageable pageRequest(Pageable pageable, Sort.Direction direction, String... properties) {
+        return PageRequest.of(0, pageable.getPageSize(), Sort.by(direction, properties));
+    }
+
+    /**
+     * Match the entities after the given id.
+     *
+     * @param id the id attribute.
+     * @param afterId the id of the last entity of the previous page, {@code null} for the first page.
+     * @param direction the direction of the keyset order.
+     * @param <T> the domain type.
+     * @return the specification, or {@code null} for the first page.
+     */
+    public static <T> Specification<T> after(SingularAttribute<? super T, Long> id, Long afterId, Sort.Direction direction) {
+        if (afterId == null) {
+            return null;
+        }
+        return (root, query, cb) -> direction.isAscending() ? cb.gt(root.get(id), afterId) : cb.lt(root.get(id), afterId);
+    }
+
+    /**
+     * Match the entities after the given key and id.
+     *
+     * @param key the first attribute of the keyset.
+     * @param id the id attribute.
+     * @param afterKey the key of the last entity of the previous page, {@code null} for the first page.
+     * @param afterId the id of the last entity of the previous page.
+     * @param direction the direction of the keyset order.
+     * @param <T> the domain type.
+     * @param <K> the type of the key.
+     * @return the specification, or {@code null} for the first page.
+     */
+    public static <T, K extends Comparable<? super K>> Specification<T> after(
+        SingularAttribute<? super T, K> key,
+        SingularAttribute<? super T, Long> id,
+        K afterKey,
+        Long afterId,
+        Sort.Direction direction
+    ) {
+        if (afterKey == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<K> keyPath = root.get(key);
+            Path<Long> idPath = root.get(id);
+            // (key, id) > (afterKey, afterId), with the redundant bound on the key alone so the key index can be used
+            if (direction.isAscending()) {
+                return cb.and(
+                    cb.greaterThanOrEqualTo(keyPath, afterKey),
+                    cb.or(cb.greaterThan(keyPath, afterKey), cb.gt(idPath, afterId))
+                );
+            }
+            return cb.and(cb.lessThanOrEqualTo(keyPath, afterKey), cb.or(cb.lessThan(keyPath, afterKey), cb.lt(idPath, afterId)));
+        };
+    }
+}
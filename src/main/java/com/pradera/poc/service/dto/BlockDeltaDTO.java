@@ -0,0 +1,64 @@
+package com.pradera.poc.service.dto;
+
+import com.pradera.poc.domain.Block;
+
+/**
+ * A DTO representing how the content of a {@link Block} is stored: a delta against its parent, or in full.
+ */
+public class BlockDeltaDTO {
+
+    private final Long id;
+
+    private final Long parentId;
+
+    private final byte[] contentDelta;
+
+    private final String content;
+
+    public BlockDeltaDTO(Long id, Long parentId, byte[] contentDelta) {
+        this.id = id;
+        this.parentId = parentId;
+        this.contentDelta = contentDelta;
+        this.content = null;
+    }
+
+    public BlockDeltaDTO(Long id, String content) {
+        this.id = id;
+        this.parentId = null;
+        this.contentDelta = null;
+        this.content = content;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    /**
+     * @return the delta against the content of the parent, or {@code null} if the content is stored in full.
+     */
+    public byte[] getContentDelta() {
+        return contentDelta;
+    }
+
+    /**
+     * @return the content stored in full, when it was read, or {@code null}.
+     */
+    public String getContent() {
+        return content;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BlockDeltaDTO{" +
+            "id=" + id +
+            ", parentId=" + parentId +
+            ", contentDelta=" + (contentDelta == null ? "null" : contentDelta.length + " bytes") +
+            ", content=" + (content == null ? "null" : content.length() + " chars") +
+            "}";
+    }
+}
@@ -0,0 +1,113 @@
+package com.pradera.poc.service.dto;
+
+import com.pradera.poc.domain.Block;
+import com.pradera.poc.domain.enumeration.BlockType;
+import java.time.ZonedDateTime;
+
+/**
+ * A DTO representing a {@link Block} in listings: its attributes and an excerpt of its content,
+ * instead of the full text.
+ */
+public class BlockSummaryDTO {
+
+    /**
+     * Maximum number of characters of the content included in {@link #getExcerpt()}.
+     */
+    public static final int EXCERPT_LENGTH = Block.EXCERPT_LENGTH;
+
+    private final Long id;
+
+    private final BlockType type;
+
+    private final String hash;
+
+    private final ZonedDateTime createdDate;
+
+    private final Integer contentLength;
+
+    private final String excerpt;
+
+    private final Long parentId;
+
+    private final Long userId;
+
+    private final String userLogin;
+
+    public BlockSummaryDTO(
+        Long id,
+        BlockType type,
+        String hash,
+        ZonedDateTime createdDate,
+        Integer contentLength,
+        String excerpt,
+        Long parentId,
+        Long userId,
+        String userLogin
+    ) {
+        this.id = id;
+        this.type = type;
+        this.hash = hash;
+        this.createdDate = createdDate;
+        this.contentLength = contentLength;
+        this.excerpt = excerpt;
+        this.parentId = parentId;
+        this.userId = userId;
+        this.userLogin = userLogin;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public BlockType getType() {
+        return type;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public ZonedDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    /**
+     * @return the number of characters of the content.
+     */
+    public Integer getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * @return the first {@value #EXCERPT_LENGTH} characters of the content.
+     */
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUserLogin() {
+        return userLogin;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BlockSummaryDTO{" +
+            "id=" + id +
+            ", type='" + type + "'" +
+            ", hash='" + hash + "'" +
+            ", createdDate='" + createdDate + "'" +
+            ", contentLength=" + contentLength +
+            ", parentId=" + parentId +
+            ", userId=" + userId +
+            "}";
+    }
+}
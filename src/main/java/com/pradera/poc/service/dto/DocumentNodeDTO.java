@@ -0,0 +1,53 @@
+package com.pradera.poc.service.dto;
+
+import com.pradera.poc.domain.enumeration.BlockType;
+
+/**
+ * A DTO representing one top-level node of an editor document state.
+ */
+public class DocumentNodeDTO {
+
+    private final String type;
+
+    private final String text;
+
+    private final Long blockId;
+
+    public DocumentNodeDTO(String type, String text, Long blockId) {
+        this.type = type;
+        this.text = text;
+        this.blockId = blockId;
+    }
+
+    public DocumentNodeDTO(BlockType type, String text, Long blockId) {
+        this(type.toEditorType(), text, blockId);
+    }
+
+    /**
+     * @return the editor node type, see {@link com.pradera.poc.domain.enumeration.BlockType#fromString(String)}.
+     */
+    public String getType() {
+        return type;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the id of the block the node was loaded from, or {@code null} for a node that was never saved.
+     */
+    public Long getBlockId() {
+        return blockId;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DocumentNodeDTO{" +
+            "type='" + type + '\'' +
+            ", blockId=" + blockId +
+            ", text='" + text + '\'' +
+            "}";
+    }
+}
@@ -0,0 +1,59 @@
+package com.pradera.poc.service.dto;
+
+import com.pradera.poc.domain.FlowBlock;
+import com.pradera.poc.domain.enumeration.BlockType;
+
+/**
+ * A DTO representing a {@link FlowBlock} with the type and the hash of its block, without the content.
+ */
+public class FlowBlockRowDTO {
+
+    private final Long id;
+
+    private final Long blockOrder;
+
+    private final Long blockId;
+
+    private final BlockType blockType;
+
+    private final String blockHash;
+
+    public FlowBlockRowDTO(Long id, Long blockOrder, Long blockId, BlockType blockType, String blockHash) {
+        this.id = id;
+        this.blockOrder = blockOrder;
+        this.blockId = blockId;
+        this.blockType = blockType;
+        this.blockHash = blockHash;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBlockOrder() {
+        return blockOrder;
+    }
+
+    public Long getBlockId() {
+        return blockId;
+    }
+
+    public BlockType getBlockType() {
+        return blockType;
+    }
+
+    public String getBlockHash() {
+        return blockHash;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FlowBlockRowDTO{" +
+            "id=" + id +
+            ", blockOrder=" + blockOrder +
+            ", blockId=" + blockId +
+            ", blockType=" + blockType +
+            "}";
+    }
+}
@@ -0,0 +1,61 @@
+package com.pradera.poc.service.dto;
+
+import com.pradera.poc.domain.Flow;
+import java.io.Serializable;
+import java.math.BigInteger;
+import org.springframework.util.DigestUtils;
+
+/**
+ * A DTO representing the editor document state of a {@link Flow}, serialized to JSON, with its entity tag.
+ * <p>
+ * The JSON of a document too large to be cached is not kept, only its entity tag: the document is streamed again when
+ * it is requested.
+ */
+public class RenderedDocumentDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] json;
+
+    private final String eTag;
+
+    public RenderedDocumentDTO(byte[] json) {
+        this(json, eTag(DigestUtils.md5Digest(json)));
+    }
+
+    public RenderedDocumentDTO(byte[] json, String eTag) {
+        this.json = json;
+        this.eTag = eTag;
+    }
+
+    /**
+     * @param md5Digest the MD5 digest of the JSON of a document.
+     * @return the strong entity tag of the document, the quoted hexadecimal digest.
+     */
+    public static String eTag(byte[] md5Digest) {
+        return "\"0" + String.format("%032x", new BigInteger(1, md5Digest)) + '"';
+    }
+
+    /**
+     * @return the JSON of the document, or {@code null} if it was too large to be kept.
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * @return the strong entity tag of the document, the quoted MD5 digest of the JSON.
+     */
+    public String getETag() {
+        return eTag;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RenderedDocumentDTO{" +
+            "json=" + (json != null ? json.length + " bytes" : "not kept") +
+            ", eTag=" + eTag +
+            "}";
+    }
+}
@@ -5,9 +5,14 @@ import com.pradera.poc.repository.BlockRepository;
 import com.pradera.poc.service.BlockQueryService;
 import com.pradera.poc.service.BlockService;
 import com.pradera.poc.service.criteria.BlockCriteria;
+import com.pradera.poc.service.dto.BlockSummaryDTO;
 import com.pradera.poc.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -18,10 +23,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -79,7 +86,7 @@ public class BlockResource {
      * @param id the id of the block to save.
      * @param block the block to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated block,
-     * or with status {@code 400 (Bad Request)} if the block is not valid,
+     * or with status {@code 400 (Bad Request)} if the block is not valid or its parent changed,
      * or with status {@code 500 (Internal Server Error)} if the block couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -97,6 +104,10 @@ public class BlockResource {
         if (!blockRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        Long parentId = block.getParent() == null ? null : block.getParent().getId();
+        if (!Objects.equals(parentId, blockRepository.findParentIdById(id))) {
+            throw new BadRequestAlertException("The parent of a block cannot be changed", ENTITY_NAME, "parentchanged");
+        }
 
         Block result = blockService.save(block);
         return ResponseEntity
@@ -146,21 +157,72 @@ public class BlockResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of blocks in body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of block summaries in body.
      */
     @GetMapping("/blocks")
-    public ResponseEntity<List<Block>> getAllBlocks(
+    public ResponseEntity<List<BlockSummaryDTO>> getAllBlocks(BlockCriteria criteria, Pageable pageable) {
+        log.debug("REST request to get Blocks by criteria: {}", criteria);
+        Page<BlockSummaryDTO> page = blockQueryService.findSummariesByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /blocks?after=:cursor} : get a page of the blocks after the given cursor.
+     * <p>
+     * The blocks are ordered by {@code createdDate} and id when sorted by {@code createdDate}, with cursors of the form
+     * {@code <createdDate>,<id>}, and by id otherwise, with cursors of the form {@code <id>}. The page is read with an
+     * index seek instead of an offset, and the blocks are not counted: the {@code Link} header only points to the next
+     * page, if any.
+     *
+     * @param after the cursor of the last block of the previous page, empty for the first page.
+     * @param pageable the size and the order of the page.
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of block summaries in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid.
+     */
+    @GetMapping(value = "/blocks", params = { "after", "!flowId" })
+    public ResponseEntity<List<BlockSummaryDTO>> getAllBlocksAfter(
         BlockCriteria criteria,
-        Pageable pageable,
-        @RequestParam(value = "flowId", required = false) Long flowId
+        @RequestParam("after") String after,
+        Pageable pageable
     ) {
-        log.debug("REST request to get Blocks by criteria: {}, flowID: {}", criteria, flowId);
-        if (flowId != null && flowId > 0) {
-            return ResponseEntity.ok().body(blockQueryService.findByFlowId(flowId));
+        log.debug("REST request to get Blocks by criteria: {}, after: {}", criteria, after);
+        boolean orderedByCreatedDate = BlockQueryService.isOrderedByCreatedDate(pageable);
+        ZonedDateTime afterCreatedDate = null;
+        Long afterId = null;
+        if (!after.isEmpty()) {
+            int separator = after.lastIndexOf(',');
+            try {
+                if (orderedByCreatedDate) {
+                    afterCreatedDate = ZonedDateTime.ofInstant(Instant.parse(after.substring(0, Math.max(separator, 0))), ZoneOffset.UTC);
+                }
+                afterId = Long.valueOf(orderedByCreatedDate ? after.substring(separator + 1) : after);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+            }
         }
-        Page<Block> page = blockQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        Slice<BlockSummaryDTO> slice = blockQueryService.findSummariesByCriteria(criteria, afterCreatedDate, afterId, pageable);
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            block -> orderedByCreatedDate ? block.getCreatedDate().toInstant() + "," + block.getId() : block.getId()
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /blocks?flowId=:flowId} : get the blocks of the "flowId" flow, with their content.
+     * <p>
+     * The blocks of a flow are not paginated: an {@code after} cursor is ignored.
+     *
+     * @param flowId the id of the flow.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the ordered list of blocks in body.
+     */
+    @GetMapping(value = "/blocks", params = "flowId")
+    public ResponseEntity<List<Block>> getBlocksByFlowId(@RequestParam("flowId") Long flowId) {
+        log.debug("REST request to get Blocks by flowID: {}", flowId);
+        return ResponseEntity.ok().body(blockQueryService.findByFlowId(flowId));
     }
 
     /**
@@ -188,6 +250,40 @@ public class BlockResource {
         return ResponseUtil.wrapOrNotFound(block);
     }
 
+    /**
+     * {@code GET  /blocks/:id/history} : get the history of the "id" block, from the block itself to its first version.
+     * <p>
+     * Each page is read with a single recursive query; the {@code Link} header points to the next page, if any.
+     *
+     * @param id the id of the block.
+     * @param after the id of the last version of the previous page, absent for the first page.
+     * @param pageable the pagination information, only the size is used.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of versions in body, newest first,
+     * or with status {@code 400 (Bad Request)} if the cursor is not a version of the block,
+     * or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/blocks/{id}/history")
+    public ResponseEntity<List<BlockSummaryDTO>> getBlockHistory(
+        @PathVariable Long id,
+        @RequestParam(value = "after", required = false) Long after,
+        Pageable pageable
+    ) {
+        log.debug("REST request to get the history of Block : {}, after: {}", id, after);
+        if (after != null && !blockService.isInHistory(id, after)) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        Slice<BlockSummaryDTO> slice = blockService.findHistory(id, after, pageable);
+        if (after == null && !slice.hasContent()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            BlockSummaryDTO::getId
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     /**
      * {@code DELETE  /blocks/:id} : delete the "id" block.
      *
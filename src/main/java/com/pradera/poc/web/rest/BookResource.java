@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -156,6 +157,33 @@ public class BookResource {
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /books?after=:id} : get a page of the books after the "id" book, ordered by id.
+     * <p>
+     * The page is read with an index seek instead of an offset, and the books are not counted: the
+     * {@code Link} header only points to the next page, if any.
+     *
+     * @param after the id of the last book of the previous page, empty for the first page.
+     * @param pageable the size and the direction of the id order of the page.
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
+     */
+    @GetMapping(value = "/books", params = "after")
+    public ResponseEntity<List<Book>> getAllBooksAfter(
+        BookCriteria criteria,
+        @RequestParam(value = "after", required = false) Long after,
+        Pageable pageable
+    ) {
+        log.debug("REST request to get Books by criteria: {}, after: {}", criteria, after);
+        Slice<Book> slice = bookQueryService.findByCriteria(criteria, after, pageable);
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            Book::getId
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     /**
      * {@code GET  /books/count} : count all the books.
      *
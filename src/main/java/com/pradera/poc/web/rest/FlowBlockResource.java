@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -162,6 +163,33 @@ public class FlowBlockResource {
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /flow-blocks?after=:id} : get a page of the flowBlocks after the "id" flowBlock, ordered by id.
+     * <p>
+     * The page is read with an index seek instead of an offset, and the flowBlocks are not counted: the
+     * {@code Link} header only points to the next page, if any.
+     *
+     * @param after the id of the last flowBlock of the previous page, empty for the first page.
+     * @param pageable the size and the direction of the id order of the page.
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of flowBlocks in body.
+     */
+    @GetMapping(value = "/flow-blocks", params = "after")
+    public ResponseEntity<List<FlowBlock>> getAllFlowBlocksAfter(
+        FlowBlockCriteria criteria,
+        @RequestParam(value = "after", required = false) Long after,
+        Pageable pageable
+    ) {
+        log.debug("REST request to get FlowBlocks by criteria: {}, after: {}", criteria, after);
+        Slice<FlowBlock> slice = flowBlockQueryService.findByCriteria(criteria, after, pageable);
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            FlowBlock::getId
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     /**
      * {@code GET  /flow-blocks/count} : count all the flowBlocks.
      *
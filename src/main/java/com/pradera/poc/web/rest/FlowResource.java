@@ -1,21 +1,23 @@
 package com.pradera.poc.web.rest;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pradera.poc.domain.Flow;
 import com.pradera.poc.repository.FlowRepository;
 import com.pradera.poc.security.SecurityUtils;
+import com.pradera.poc.service.DocumentStateReader;
 import com.pradera.poc.service.FlowQueryService;
 import com.pradera.poc.service.FlowService;
 import com.pradera.poc.service.criteria.FlowCriteria;
+import com.pradera.poc.service.dto.RenderedDocumentDTO;
 import com.pradera.poc.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -23,11 +25,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.parameters.P;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -53,25 +59,35 @@ public class FlowResource {
 
     private final FlowQueryService flowQueryService;
 
-    public FlowResource(FlowService flowService, FlowRepository flowRepository, FlowQueryService flowQueryService) {
+    private final DocumentStateReader documentStateReader;
+
+    public FlowResource(
+        FlowService flowService,
+        FlowRepository flowRepository,
+        FlowQueryService flowQueryService,
+        DocumentStateReader documentStateReader
+    ) {
         this.flowService = flowService;
         this.flowRepository = flowRepository;
         this.flowQueryService = flowQueryService;
+        this.documentStateReader = documentStateReader;
     }
 
     /**
      * {@code PUT  /flows/upload-document-state/{id}} : Updates document state
+     * <p>
+     * The request body is streamed into the flow, see {@link DocumentStateReader}.
      *
      * @param id the flow to update state.
+     * @param documentState the request body, with the editor document state.
      * @return the {@link ResponseEntity} with status {@code 200 } and with body the updated flow, or with status {@code 400 (Bad Request)} if found errors.
-     * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/flows/upload-document-state/{id}")
     public ResponseEntity<Flow> uploadDocumentState(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody String json
-    ) throws URISyntaxException, JsonProcessingException {
-        log.debug("REST request to update Flow  document state : {}, {}", id, json);
+        InputStream documentState
+    ) {
+        log.debug("REST request to update Flow  document state : {}", id);
         if (id == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
@@ -79,12 +95,9 @@ public class FlowResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode docStateJson = objectMapper.readTree(json);
-
         String currentUser = SecurityUtils.getCurrentUserLogin().orElseThrow();
 
-        Optional<Flow> flow = flowService.updateDocState(currentUser, id, docStateJson);
+        Optional<Flow> flow = flowService.updateDocState(currentUser, id, documentStateReader.read(documentState));
         return ResponseUtil.wrapOrNotFound(flow);
     }
 
@@ -205,6 +218,33 @@ public class FlowResource {
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /flows?after=:id} : get a page of the flows after the "id" flow, ordered by id.
+     * <p>
+     * The page is read with an index seek instead of an offset, and the flows are not counted: the
+     * {@code Link} header only points to the next page, if any.
+     *
+     * @param after the id of the last flow of the previous page, empty for the first page.
+     * @param pageable the size and the direction of the id order of the page.
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of flows in body.
+     */
+    @GetMapping(value = "/flows", params = "after")
+    public ResponseEntity<List<Flow>> getAllFlowsAfter(
+        FlowCriteria criteria,
+        @RequestParam(value = "after", required = false) Long after,
+        Pageable pageable
+    ) {
+        log.debug("REST request to get Flows by criteria: {}, after: {}", criteria, after);
+        Slice<Flow> slice = flowQueryService.findByCriteria(criteria, after, pageable);
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            Flow::getId
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     /**
      * {@code GET  /flows/count} : count all the flows.
      *
@@ -230,6 +270,36 @@ public class FlowResource {
         return ResponseUtil.wrapOrNotFound(flow);
     }
 
+    /**
+     * {@code GET  /flows/:id/document} : get the "id" flow as an editor document state.
+     * <p>
+     * The rendered document is cached until the flow changes, see {@link FlowService#renderDocState(Long)}, and sent
+     * with its {@code ETag}: a request whose {@code If-None-Match} header has the current entity tag gets a
+     * {@code 304 (Not Modified)} response without a body. A document too large to be cached whole is streamed to the
+     * response, see {@link FlowService#writeDocState(Long, java.io.OutputStream)}.
+     *
+     * @param id the id of the flow to retrieve.
+     * @param request the request, with its conditional headers.
+     * @param response the response the document state is written to, with status {@code 200 (OK)}, or with status {@code 304 (Not Modified)}, or with status {@code 404 (Not Found)}.
+     * @throws IOException if the document state could not be written.
+     */
+    @GetMapping("/flows/{id}/document")
+    public void getFlowDocument(@PathVariable Long id, ServletWebRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to get the document of Flow : {}", id);
+        RenderedDocumentDTO document = flowService.renderDocState(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        // sets the ETag header, and turns the response into a 304 when it matches the If-None-Match header
+        if (request.checkNotModified(document.getETag())) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (document.getJson() != null) {
+            response.setContentLength(document.getJson().length);
+            response.getOutputStream().write(document.getJson());
+        } else {
+            flowService.writeDocState(id, response.getOutputStream());
+        }
+    }
+
     /**
      * {@code DELETE  /flows/:id} : delete the "id" flow.
      *
@@ -0,0 +1,46 @@
+package com.pradera.poc.web.rest;
+
+import java.util.function.Function;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset pagination.
+ * <p>
+ * Unlike {@link tech.jhipster.web.util.PaginationUtil}, the total count is not known: only a {@code Link} to the next
+ * page is returned, carrying the cursor of the last entity of the current page in its {@code after} parameter.
+ */
+public final class KeysetPaginationUtil {
+
+    private static final String HEADER_LINK = "Link";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Generate the pagination headers of a keyset page.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the current page.
+     * @param cursor the function returning the cursor of an entity, applied to the last entity of {@code slice}.
+     * @param <T> the type of the entities.
+     * @return the {@link HttpHeaders}, with a {@code next} link if {@code slice} is not the last page.
+     */
+    public static <T> HttpHeaders generateKeysetHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Slice<T> slice,
+        Function<? super T, ?> cursor
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            T last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            String link = uriBuilder
+                .replaceQueryParam("after", cursor.apply(last))
+                .replaceQueryParam("page")
+                .replaceQueryParam("size", slice.getSize())
+                .toUriString();
+            headers.add(HEADER_LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
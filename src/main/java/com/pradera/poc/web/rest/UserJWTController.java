@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.pradera.poc.security.jwt.JWTFilter;
 import com.pradera.poc.security.jwt.TokenProvider;
 import com.pradera.poc.web.rest.vm.LoginVM;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -11,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,13 +24,25 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api")
 public class UserJWTController {
 
+    /**
+     * Timer of the authentications of the users by password, tagged with their outcome.
+     */
+    public static final String AUTHENTICATION_METRIC_NAME = "security.authentication";
+
     private final TokenProvider tokenProvider;
 
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
 
-    public UserJWTController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder) {
+    private final MeterRegistry meterRegistry;
+
+    public UserJWTController(
+        TokenProvider tokenProvider,
+        AuthenticationManagerBuilder authenticationManagerBuilder,
+        MeterRegistry meterRegistry
+    ) {
         this.tokenProvider = tokenProvider;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
+        this.meterRegistry = meterRegistry;
     }
 
     @PostMapping("/authenticate")
@@ -37,7 +52,7 @@ public class UserJWTController {
             loginVM.getPassword()
         );
 
-        Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
+        Authentication authentication = authenticate(authenticationToken);
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = tokenProvider.createToken(authentication, loginVM.isRememberMe());
         HttpHeaders httpHeaders = new HttpHeaders();
@@ -45,6 +60,27 @@ public class UserJWTController {
         return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
     }
 
+    private Authentication authenticate(UsernamePasswordAuthenticationToken authenticationToken) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
+            outcome = "success";
+            return authentication;
+        } catch (AuthenticationException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(
+                Timer
+                    .builder(AUTHENTICATION_METRIC_NAME)
+                    .description("Time to authenticate a user by password")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+            );
+        }
+    }
+
     /**
      * Object to return as body in JWT Authentication.
      */
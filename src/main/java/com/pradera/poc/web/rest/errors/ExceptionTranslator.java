@@ -1,5 +1,6 @@
 package com.pradera.poc.web.rest.errors;
 
+import com.pradera.poc.service.InvalidDocumentStateException;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collection;
@@ -150,6 +151,11 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(new InvalidPasswordException(), request);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleInvalidDocumentStateException(InvalidDocumentStateException ex, NativeWebRequest request) {
+        return handleBadRequestAlertException(new BadRequestAlertException(ex.getMessage(), "flow", "invaliddocstate"), request);
+    }
+
     @ExceptionHandler
     public ResponseEntity<Problem> handleBadRequestAlertException(BadRequestAlertException ex, NativeWebRequest request) {
         return create(
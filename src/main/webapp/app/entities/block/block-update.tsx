@@ -2,7 +2,7 @@ import React, { useState, useEffect } from 'react';
 import { connect } from 'react-redux';
 import { Link, RouteComponentProps } from 'react-router-dom';
 import { Button, Row, Col, Label } from 'reactstrap';
-import { AvFeedback, AvForm, AvGroup, AvInput, AvField } from 'availity-reactstrap-validation';
+import { AvFeedback, AvForm, AvGroup, AvInput } from 'availity-reactstrap-validation';
 import { setFileData, byteSize, Translate, translate } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 import { IRootState } from 'app/shared/reducers';
@@ -141,20 +141,14 @@ export const BlockUpdate = (props: IBlockUpdateProps) => {
                   }}
                 />
               </AvGroup>
-              <AvGroup>
-                <Label id="hashLabel" for="block-hash">
-                  <Translate contentKey="praderaApp.block.hash">Hash</Translate>
-                </Label>
-                <AvField
-                  id="block-hash"
-                  data-cy="hash"
-                  type="text"
-                  name="hash"
-                  validate={{
-                    required: { value: true, errorMessage: translate('entity.validation.required') },
-                  }}
-                />
-              </AvGroup>
+              {!isNew ? (
+                <AvGroup>
+                  <Label id="hashLabel" for="block-hash">
+                    <Translate contentKey="praderaApp.block.hash">Hash</Translate>
+                  </Label>
+                  <AvInput id="block-hash" data-cy="hash" type="text" className="form-control" name="hash" readOnly />
+                </AvGroup>
+              ) : null}
               <AvGroup>
                 <Label for="block-parent">
                   <Translate contentKey="praderaApp.block.parent">Parent</Translate>
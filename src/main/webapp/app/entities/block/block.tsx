@@ -7,7 +7,7 @@ import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 
 import { IRootState } from 'app/shared/reducers';
 import { getEntities } from './block.reducer';
-import { IBlock } from 'app/shared/model/block.model';
+import { IBlockSummary } from 'app/shared/model/block-summary.model';
 import { APP_DATE_FORMAT, APP_LOCAL_DATE_FORMAT } from 'app/config/constants';
 import { ITEMS_PER_PAGE } from 'app/shared/util/pagination.constants';
 import { overridePaginationStateWithQueryParams } from 'app/shared/util/entity-utils';
@@ -115,7 +115,7 @@ export const Block = (props: IBlockProps) => {
               </tr>
             </thead>
             <tbody>
-              {blockList.map((block, i) => (
+              {blockList.map((block: IBlockSummary, i) => (
                 <tr key={`entity-${i}`} data-cy="entityTable">
                   <td>
                     <Button tag={Link} to={`${match.url}/${block.id}`} color="link" size="sm">
@@ -125,11 +125,11 @@ export const Block = (props: IBlockProps) => {
                   <td>
                     <Translate contentKey={`praderaApp.BlockType.${block.type}`} />
                   </td>
-                  <td>{block.content}</td>
+                  <td>{block.excerpt}</td>
                   <td>{block.createdDate ? <TextFormat type="date" value={block.createdDate} format={APP_DATE_FORMAT} /> : null}</td>
                   <td>{block.hash}</td>
-                  <td>{block.parent ? <Link to={`block/${block.parent.id}`}>{block.parent.content}</Link> : ''}</td>
-                  <td>{block.user ? block.user.login : ''}</td>
+                  <td>{block.parentId ? <Link to={`block/${block.parentId}`}>{block.parentId}</Link> : ''}</td>
+                  <td>{block.userLogin}</td>
                   <td className="text-right">
                     <div className="btn-group flex-btn-group-container">
                       <Button tag={Link} to={`${match.url}/${block.id}`} color="info" size="sm" data-cy="entityDetailsButton">
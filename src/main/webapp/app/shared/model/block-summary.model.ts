@@ -0,0 +1,13 @@
+import { BlockType } from 'app/shared/model/enumerations/block-type.model';
+
+export interface IBlockSummary {
+  id?: number;
+  type?: BlockType;
+  hash?: string;
+  createdDate?: string;
+  contentLength?: number;
+  excerpt?: string;
+  parentId?: number | null;
+  userId?: number;
+  userLogin?: string;
+}
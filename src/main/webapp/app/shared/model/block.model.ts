@@ -9,6 +9,8 @@ export interface IBlock {
   content?: string;
   createdDate?: string;
   hash?: string;
+  rootId?: number;
+  depth?: number;
   parent?: IBlock | null;
   user?: IUser;
   parentBlocks?: IBlock[] | null;
@@ -0,0 +1,72 @@
+package com.pradera.poc.aop.timing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+/**
+ * Test class for the {@link SampledTimingInterceptor}.
+ */
+class SampledTimingInterceptorTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testEveryInvocationIsTimedWithASampleRateOfOne() {
+        Supplier<String> timed = proxy(() -> "result", 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(timed.get()).isEqualTo("result");
+        }
+
+        Timer timer = meterRegistry.get(SampledTimingInterceptor.METRIC_NAME).tag("method", "get").tag("exception", "none").timer();
+        assertThat(timer.count()).isEqualTo(3);
+    }
+
+    @Test
+    void testExceptionsAreTagged() {
+        Supplier<String> timed = proxy(
+            () -> {
+                throw new IllegalStateException();
+            },
+            1
+        );
+
+        assertThatThrownBy(timed::get).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get(SampledTimingInterceptor.METRIC_NAME).tag("exception", "IllegalStateException").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testNoInvocationIsTimedWithASampleRateOfZero() {
+        Supplier<MeterRegistry> unavailable = () -> {
+            throw new AssertionError("The registry should not be resolved");
+        };
+        ProxyFactory proxyFactory = new ProxyFactory((Supplier<String>) () -> "result");
+        proxyFactory.addAdvice(new SampledTimingInterceptor(unavailable, 0));
+        @SuppressWarnings("unchecked")
+        Supplier<String> timed = (Supplier<String>) proxyFactory.getProxy();
+
+        assertThat(timed.get()).isEqualTo("result");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Supplier<String> proxy(Supplier<String> target, double sampleRate) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addAdvice(new SampledTimingInterceptor(() -> meterRegistry, sampleRate));
+        return (Supplier<String>) proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,38 @@
+package com.pradera.poc.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Test class for the validation of the {@link ApplicationProperties}.
+ */
+class ApplicationPropertiesTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(ValidationAutoConfiguration.class))
+        .withUserConfiguration(PropertiesConfiguration.class);
+
+    @Test
+    void testKeyframeInterval() {
+        contextRunner
+            .withPropertyValues("application.block-storage.keyframe-interval=1")
+            .run(context -> assertThat(context.getBean(ApplicationProperties.class).getBlockStorage().getKeyframeInterval()).isEqualTo(1));
+    }
+
+    @Test
+    void testKeyframeIntervalMustBePositive() {
+        contextRunner
+            .withPropertyValues("application.block-storage.keyframe-interval=0")
+            .run(context -> assertThat(context).hasFailed());
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(ApplicationProperties.class)
+    static class PropertiesConfiguration {}
+}
@@ -0,0 +1,56 @@
+package com.pradera.poc.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pradera.poc.IntegrationTest;
+import com.pradera.poc.domain.Block;
+import com.pradera.poc.domain.Flow;
+import com.pradera.poc.service.BlockService;
+import java.time.Duration;
+import javax.cache.CacheManager;
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the per region configuration of {@link CacheConfiguration}.
+ */
+@IntegrationTest
+class CacheConfigurationIT {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void configuredRegionsHaveTheirOwnTiersAndExpiry() {
+        CacheRuntimeConfiguration<Object, Object> block = runtimeConfiguration(Block.class.getName());
+        assertThat(block.getResourcePools().getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(100);
+        SizedResourcePool offHeap = block.getResourcePools().getPoolForResource(ResourceType.Core.OFFHEAP);
+        assertThat(((MemoryUnit) offHeap.getUnit()).toBytes(offHeap.getSize())).isEqualTo(MemoryUnit.MB.toBytes(1));
+        assertThat(block.getExpiryPolicy().getExpiryForCreation(1L, "block")).isEqualTo(Duration.ofHours(1));
+
+        CacheRuntimeConfiguration<Object, Object> keyframes = runtimeConfiguration(BlockService.KEYFRAMES_CACHE);
+        assertThat(keyframes.getResourcePools().getResourceTypeSet()).containsExactly(ResourceType.Core.HEAP);
+        assertThat(keyframes.getExpiryPolicy().getExpiryForAccess(1L, () -> "content")).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    void otherRegionsUseTheDefaults() {
+        ResourcePools resourcePools = runtimeConfiguration(Flow.class.getName()).getResourcePools();
+        assertThat(resourcePools.getResourceTypeSet()).containsExactly(ResourceType.Core.HEAP);
+        assertThat(resourcePools.getPoolForResource(ResourceType.Core.HEAP).getUnit()).isEqualTo(EntryUnit.ENTRIES);
+        assertThat(resourcePools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(100);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheRuntimeConfiguration<Object, Object> runtimeConfiguration(String cacheName) {
+        Eh107Configuration<Object, Object> configuration = cacheManager.getCache(cacheName).getConfiguration(Eh107Configuration.class);
+        return configuration.unwrap(CacheRuntimeConfiguration.class);
+    }
+}
@@ -0,0 +1,62 @@
+package com.pradera.poc.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.pradera.poc.IntegrationTest;
+import com.pradera.poc.repository.BookRepository;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link HibernateStatisticsEndpoint} and the {@link ServerTimingFilter}.
+ */
+@AutoConfigureMockMvc
+@IntegrationTest
+@WithMockUser
+class HibernateStatisticsConfigurationIT {
+
+    @Autowired
+    private HibernateStatisticsEndpoint hibernateStatisticsEndpoint;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void statisticsAreGatheredOnceEnabled() {
+        assertThat(hibernateStatisticsEndpoint.statistics()).containsEntry("enabled", false);
+
+        hibernateStatisticsEndpoint.enable(true);
+        try {
+            hibernateStatisticsEndpoint.clear();
+            bookRepository.findAll();
+
+            Map<String, Object> statistics = hibernateStatisticsEndpoint.statistics();
+            assertThat(statistics).containsEntry("enabled", true).containsKeys("entityLoads", "secondLevelCache");
+            assertThat((long) statistics.get("statements")).isPositive();
+        } finally {
+            hibernateStatisticsEndpoint.enable(false);
+            hibernateStatisticsEndpoint.clear();
+        }
+    }
+
+    @Test
+    void apiResponsesHaveAServerTimingHeader() throws Exception {
+        mockMvc
+            .perform(get("/api/books"))
+            .andExpect(status().isOk())
+            .andExpect(
+                header().string(ServerTimingFilter.SERVER_TIMING_HEADER, matchesPattern("sql;desc=\"[1-9]\\d* statements\", app;dur=\\d+\\.\\d"))
+            );
+    }
+}
@@ -0,0 +1,48 @@
+package com.pradera.poc.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pradera.poc.IntegrationTest;
+import com.pradera.poc.aop.logging.LoggingAspect;
+import com.pradera.poc.aop.timing.SampledTimingInterceptor;
+import com.pradera.poc.service.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for the aspects configured by {@link LoggingAspectConfiguration}.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.aspects.timing.sample-rate=1")
+class LoggingAspectConfigurationIT {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void servicesAreTimedWithoutTheLoggingAspect() {
+        assertThat(applicationContext.getBeanNamesForType(LoggingAspect.class)).isEmpty();
+
+        bookService.findAll(PageRequest.of(0, 1));
+
+        assertThat(
+            meterRegistry
+                .get(SampledTimingInterceptor.METRIC_NAME)
+                .tag("class", BookService.class.getName())
+                .tag("method", "findAll")
+                .timer()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+}
@@ -0,0 +1,79 @@
+package com.pradera.poc.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pradera.poc.IntegrationTest;
+import com.pradera.poc.domain.Block;
+import com.pradera.poc.repository.BlockRepository;
+import com.pradera.poc.repository.FlowBlockRepository;
+import com.pradera.poc.repository.RepositoryInvocationMetrics;
+import com.pradera.poc.service.BlockService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Integration tests for the metrics configured by {@link MetricsConfiguration}.
+ */
+@IntegrationTest
+class MetricsConfigurationIT {
+
+    @Autowired
+    private BlockRepository blockRepository;
+
+    @Autowired
+    private FlowBlockRepository flowBlockRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void repositoryInvocationsAreTimed() {
+        long before = repositoryTimerCount("BlockRepository", "findByFlowId", "false");
+
+        blockRepository.findByFlowId(Long.MAX_VALUE);
+
+        assertThat(repositoryTimerCount("BlockRepository", "findByFlowId", "false")).isEqualTo(before + 1);
+    }
+
+    @Test
+    void criteriaQueriesAreTaggedAsSuch() {
+        long before = repositoryTimerCount("FlowBlockRepository", "count", "true");
+
+        flowBlockRepository.count(Specification.where(null));
+
+        assertThat(repositoryTimerCount("FlowBlockRepository", "count", "true")).isEqualTo(before + 1);
+    }
+
+    @Test
+    void cacheHitRatiosAreExposed() {
+        Cache keyframes = Objects.requireNonNull(cacheManager.getCache(BlockService.KEYFRAMES_CACHE));
+        keyframes.put(Long.MAX_VALUE, "keyframe");
+        keyframes.get(Long.MAX_VALUE);
+
+        assertThat(meterRegistry.get("cache.hit.ratio").tag("cache", BlockService.KEYFRAMES_CACHE).gauge().value())
+            .isGreaterThan(0.0)
+            .isLessThanOrEqualTo(1.0);
+        assertThat(meterRegistry.find("cache.hit.ratio").tag("cache", Block.class.getName()).gauge()).isNotNull();
+    }
+
+    private long repositoryTimerCount(String repository, String method, String criteria) {
+        return meterRegistry
+            .find(RepositoryInvocationMetrics.METRIC_NAME)
+            .tag("repository", repository)
+            .tag("method", method)
+            .tag("criteria", criteria)
+            .tag("state", "SUCCESS")
+            .timers()
+            .stream()
+            .mapToLong(timer -> timer.count())
+            .sum();
+    }
+}
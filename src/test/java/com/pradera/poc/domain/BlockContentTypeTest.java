@@ -0,0 +1,67 @@
+package com.pradera.poc.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.Test;
+
+class BlockContentTypeTest {
+
+    @Test
+    void smallContentsAreStoredUncompressed() {
+        byte[] column = BlockContentType.encode("Hello wörld");
+
+        assertThat(column[0]).isEqualTo(BlockContentType.UTF8);
+        assertThat(Arrays.copyOfRange(column, 1, column.length)).isEqualTo("Hello wörld".getBytes(StandardCharsets.UTF_8));
+        assertThat(BlockContentType.decode(column)).isEqualTo("Hello wörld");
+    }
+
+    @Test
+    void largeContentsAreStoredCompressed() {
+        String content = "All work and no play makes Jack a dull boy.\n".repeat(100);
+
+        byte[] column = BlockContentType.encode(content);
+
+        assertThat(column[0]).isEqualTo(BlockContentType.DEFLATED);
+        assertThat(column.length).isLessThan(content.length() / 10);
+        assertThat(BlockContentType.decode(column)).isEqualTo(content);
+    }
+
+    @Test
+    void readContentsAreCachedWithoutCompressingThemAgain() throws Exception {
+        byte[] column = BlockContentType.encode("All work and no play makes Jack a dull boy.\n".repeat(100));
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getBytes("content")).thenReturn(column);
+        BlockContentType type = new BlockContentType();
+
+        Object content = type.nullSafeGet(rs, new String[] { "content" }, null, null);
+
+        assertThat(type.disassemble(content)).isSameAs(column);
+        assertThat(type.disassemble(type.assemble(column, null))).isSameAs(column);
+    }
+
+    @Test
+    void randomContentsRoundTrip() {
+        for (int length : new int[] { 0, BlockContentType.COMPRESSION_THRESHOLD - 1, BlockContentType.COMPRESSION_THRESHOLD, 5000 }) {
+            String content = RandomStringUtils.random(length);
+
+            assertThat(BlockContentType.decode(BlockContentType.encode(content))).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void invalidColumnsAreRejected() {
+        byte[] column = BlockContentType.encode("x".repeat(1000));
+
+        assertThatThrownBy(() -> BlockContentType.decode(new byte[0])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BlockContentType.decode(new byte[] { 7, 'x' })).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BlockContentType.decode(Arrays.copyOf(column, column.length / 2)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
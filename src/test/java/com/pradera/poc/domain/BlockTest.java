@@ -20,4 +20,16 @@ class BlockTest {
         block1.setId(null);
         assertThat(block1).isNotEqualTo(block2);
     }
+
+    @Test
+    void contentLengthAndExcerptFollowTheContent() {
+        Block block = new Block().content("\ud83d\udcd6 " + "a".repeat(300));
+
+        assertThat(block.getContentLength()).isEqualTo(302);
+        assertThat(block.getExcerpt()).startsWith("\ud83d\udcd6 a").hasSize(Block.EXCERPT_LENGTH + 1);
+
+        block.setContent("short");
+        assertThat(block.getContentLength()).isEqualTo(5);
+        assertThat(block.getExcerpt()).isEqualTo("short");
+    }
 }
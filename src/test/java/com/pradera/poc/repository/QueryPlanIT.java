@@ -0,0 +1,142 @@
+package com.pradera.poc.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pradera.poc.IntegrationTest;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Integration tests for the indexes of the flow_block and block tables.
+ * <p>
+ * The query plans are only meaningful on PostgreSQL with realistic volumes, so this test only runs with the
+ * {@code testcontainers} profile ({@code ./gradlew integrationTest -Ptestcontainers}). It loads a million blocks
+ * and flow blocks once for the class, checks with {@code EXPLAIN} that the hot queries are index scans, and deletes the
+ * data afterwards.
+ */
+@IntegrationTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "spring.profiles.active", matches = ".*testcontainers.*")
+class QueryPlanIT {
+
+    private static final long ROW_COUNT = 1_000_000;
+
+    private static final long USER_COUNT = 1_000;
+
+    private static final long FIRST_ID = 1_000_000_000_000L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void loadData() {
+        String databaseName = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+        );
+        assertThat(databaseName).isEqualTo("PostgreSQL");
+
+        // one flow per user, each block is the revision of the previous block of its user
+        jdbcTemplate.update(
+            "INSERT INTO jhi_user (id, login, password_hash, activated, created_by) " +
+            "SELECT " + FIRST_ID + " + g, 'query-plan-' || g, repeat('x', 60), true, 'system' FROM generate_series(0, ?) g",
+            USER_COUNT - 1
+        );
+        jdbcTemplate.update(
+            "INSERT INTO flow (id, name, user_id) SELECT " + FIRST_ID + " + g, 'flow ' || g, " + FIRST_ID + " + g " +
+            "FROM generate_series(0, ?) g",
+            USER_COUNT - 1
+        );
+        jdbcTemplate.update(
+            "INSERT INTO block (id, type, content, content_length, excerpt, created_date, hash, user_id, parent_id, root_id, depth) " +
+            "SELECT " + FIRST_ID + " + g, 'PARAGRAPH', decode('00', 'hex') || convert_to('content ' || g, 'UTF8'), " +
+            "length('content ' || g), 'content ' || g, timestamp '2026-01-01' + g * interval '1 second', md5(g::text), " +
+            FIRST_ID + " + g % ?, CASE WHEN g < ? THEN NULL ELSE " + FIRST_ID + " + g - ? END, " +
+            FIRST_ID + " + g % ?, g / ? " +
+            "FROM generate_series(0, ?) g",
+            USER_COUNT,
+            USER_COUNT,
+            USER_COUNT,
+            USER_COUNT,
+            USER_COUNT,
+            ROW_COUNT - 1
+        );
+        jdbcTemplate.update(
+            "INSERT INTO flow_block (id, block_order, flow_id, block_id) " +
+            "SELECT " + FIRST_ID + " + g, (g / ?) * 65536, " + FIRST_ID + " + g % ?, " + FIRST_ID + " + g FROM generate_series(0, ?) g",
+            USER_COUNT,
+            USER_COUNT,
+            ROW_COUNT - 1
+        );
+        jdbcTemplate.execute("ANALYZE jhi_user, flow, block, flow_block");
+    }
+
+    @AfterAll
+    void deleteData() {
+        jdbcTemplate.update("DELETE FROM flow_block WHERE id >= ?", FIRST_ID);
+        jdbcTemplate.update("DELETE FROM block WHERE id >= ?", FIRST_ID);
+        jdbcTemplate.update("DELETE FROM flow WHERE id >= ?", FIRST_ID);
+        jdbcTemplate.update("DELETE FROM jhi_user WHERE id >= ?", FIRST_ID);
+    }
+
+    @Test
+    void findByFlowIdUsesTheFlowBlockOrderIndex() {
+        assertThat(
+            explain(
+                "SELECT b.* FROM block b INNER JOIN flow_block fb ON b.id = fb.block_id WHERE fb.flow_id = " +
+                (FIRST_ID + 42) +
+                " ORDER BY fb.block_order, fb.id"
+            )
+        )
+            .contains("idx_flow_block_flow_id_block_order")
+            .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void deleteByFlowIdUsesTheFlowBlockOrderIndex() {
+        assertThat(explain("DELETE FROM flow_block WHERE flow_id = " + (FIRST_ID + 42)))
+            .contains("idx_flow_block_flow_id_block_order")
+            .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void blocksOfAUserByCreatedDateUseTheUserCreatedDateIndex() {
+        assertThat(
+            explain("SELECT * FROM block WHERE user_id = " + (FIRST_ID + 42) + " ORDER BY created_date DESC, id DESC LIMIT 20")
+        )
+            .contains("idx_block_user_id_created_date")
+            .doesNotContain("Seq Scan")
+            .doesNotContain("Sort");
+    }
+
+    @Test
+    void revisionsOfABlockUseTheParentIndex() {
+        assertThat(explain("SELECT * FROM block WHERE parent_id = " + (FIRST_ID + 42)))
+            .contains("idx_block_parent_id")
+            .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void revisionsOfARootUseTheRootDepthIndex() {
+        assertThat(explain("SELECT * FROM block WHERE root_id = " + (FIRST_ID + 42) + " ORDER BY depth, id"))
+            .contains("idx_block_root_id_depth")
+            .doesNotContain("Seq Scan")
+            .doesNotContain("Sort");
+    }
+
+    @Test
+    void blocksByHashUseTheHashIndex() {
+        assertThat(explain("SELECT * FROM block WHERE hash = md5('42')")).contains("idx_block_hash").doesNotContain("Seq Scan");
+    }
+
+    private String explain(String sql) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        return String.join("\n", plan);
+    }
+}
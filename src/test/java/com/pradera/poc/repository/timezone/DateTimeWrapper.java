@@ -1,5 +1,6 @@
 package com.pradera.poc.repository.timezone;
 
+import com.pradera.poc.config.Constants;
 import java.io.Serializable;
 import java.time.*;
 import java.util.Objects;
@@ -13,7 +14,7 @@ public class DateTimeWrapper implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator", allocationSize = Constants.SEQUENCE_GENERATOR_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "instant")
@@ -7,8 +7,11 @@ import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,6 +27,7 @@ class TokenProviderTest {
     private static final long ONE_MINUTE = 60000;
 
     private Key key;
+    private SimpleMeterRegistry meterRegistry;
     private TokenProvider tokenProvider;
 
     @BeforeEach
@@ -31,7 +35,8 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
-        tokenProvider = new TokenProvider(jHipsterProperties);
+        meterRegistry = new SimpleMeterRegistry();
+        tokenProvider = new TokenProvider(jHipsterProperties, meterRegistry);
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -83,13 +88,72 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testGetValidAuthenticationVerifiesATokenOnce() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.getValidAuthentication(token)).get().extracting(Authentication::getName).isEqualTo("anonymous");
+        // a parser with another key rejects every token, so the second call is served from the verified tokens
+        ReflectionTestUtils.setField(tokenProvider, "jwtParser", Jwts.parserBuilder().setSigningKey(otherKey()).build());
+
+        Optional<Authentication> authentication = tokenProvider.getValidAuthentication(token);
+        assertThat(authentication).get().extracting(Authentication::getName).isEqualTo("anonymous");
+        assertThat(authentication.get().getCredentials()).isEqualTo(token);
+        assertThat(authentication.get().getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ANONYMOUS);
+    }
+
+    @Test
+    void testGetValidAuthenticationVerifiesTheTokenAgainOnceItExpired() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.getValidAuthentication(token)).isPresent();
+
+        ReflectionTestUtils.setField(tokenProvider, "jwtParser", Jwts.parserBuilder().setSigningKey(otherKey()).build());
+        ReflectionTestUtils.setField(tokenProvider, "clock", Clock.offset(Clock.systemUTC(), Duration.ofMillis(2 * ONE_MINUTE)));
+
+        assertThat(tokenProvider.getValidAuthentication(token)).isEmpty();
+    }
+
+    @Test
+    void testGetValidAuthenticationRejectsInvalidTokens() {
+        assertThat(tokenProvider.getValidAuthentication(createTokenWithDifferentSignature())).isEmpty();
+        assertThat(tokenProvider.getValidAuthentication(createUnsupportedToken())).isEmpty();
+        assertThat(tokenProvider.getValidAuthentication("")).isEmpty();
+    }
+
+    @Test
+    void testGetValidAuthenticationIsTimedByCacheHitOrMiss() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        tokenProvider.getValidAuthentication(token);
+        tokenProvider.getValidAuthentication(token);
+        tokenProvider.getValidAuthentication(token);
+        tokenProvider.getValidAuthentication(createTokenWithDifferentSignature());
+
+        assertThat(timerCount("hit", "success")).isEqualTo(2);
+        assertThat(timerCount("miss", "success")).isEqualTo(1);
+        assertThat(timerCount("miss", "failure")).isEqualTo(1);
+    }
+
+    @Test
+    void testGetValidAuthenticationKeepsABoundedNumberOfTokens() {
+        for (int i = 0; i <= TokenProvider.VERIFIED_TOKENS_MAX_SIZE; i++) {
+            Authentication authentication = new UsernamePasswordAuthenticationToken("user" + i, "password", Collections.emptyList());
+            assertThat(tokenProvider.getValidAuthentication(tokenProvider.createToken(authentication, false))).isPresent();
+        }
+
+        Map<?, ?> verifiedTokens = (Map<?, ?>) ReflectionTestUtils.getField(tokenProvider, "verifiedTokens");
+        assertThat(verifiedTokens).hasSizeLessThanOrEqualTo(TokenProvider.VERIFIED_TOKENS_MAX_SIZE);
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setSecret(secret);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new SimpleMeterRegistry());
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -101,12 +165,21 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new SimpleMeterRegistry());
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
     }
 
+    private long timerCount(String cache, String outcome) {
+        return meterRegistry
+            .get(TokenProvider.TOKEN_AUTHENTICATION_METRIC_NAME)
+            .tag("cache", cache)
+            .tag("outcome", outcome)
+            .timer()
+            .count();
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
@@ -117,15 +190,17 @@ class TokenProviderTest {
         return Jwts.builder().setPayload("payload").signWith(key, SignatureAlgorithm.HS512).compact();
     }
 
-    private String createTokenWithDifferentSignature() {
-        Key otherKey = Keys.hmacShaKeyFor(
+    private Key otherKey() {
+        return Keys.hmacShaKeyFor(
             Decoders.BASE64.decode("Xfd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8")
         );
+    }
 
+    private String createTokenWithDifferentSignature() {
         return Jwts
             .builder()
             .setSubject("anonymous")
-            .signWith(otherKey, SignatureAlgorithm.HS512)
+            .signWith(otherKey(), SignatureAlgorithm.HS512)
             .setExpiration(new Date(new Date().getTime() + ONE_MINUTE))
             .compact();
     }
@@ -0,0 +1,58 @@
+package com.pradera.poc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link BlockDelta} utility class.
+ */
+class BlockDeltaTest {
+
+    @Test
+    void testRoundTrips() {
+        String base = "It was the best of times, it was the worst of times.";
+        for (String target : new String[] {
+            base,
+            "",
+            "It was the best of times, it was the blurst of times.",
+            "Prologue. " + base,
+            base + " Epilogue.",
+            "It was the best of times.",
+            "Il était une fois 📖",
+        }) {
+            assertThat(BlockDelta.apply(base, BlockDelta.diff(base, target))).isEqualTo(target);
+        }
+        assertThat(BlockDelta.apply("", BlockDelta.diff("", "new"))).isEqualTo("new");
+        assertThat(BlockDelta.apply("aaaa", BlockDelta.diff("aaaa", "aaa"))).isEqualTo("aaa");
+    }
+
+    @Test
+    void testEditsInsideSurrogatePairs() {
+        assertThat(BlockDelta.apply("a😀 b", BlockDelta.diff("a😀 b", "a😃 b"))).isEqualTo("a😃 b");
+        assertThat(BlockDelta.apply("a😀 b", BlockDelta.diff("a😀 b", "a🙀 b"))).isEqualTo("a🙀 b");
+        // same low surrogate, different high surrogates
+        assertThat(BlockDelta.apply("a\uD83D\uDE00 b", BlockDelta.diff("a\uD83D\uDE00 b", "a\uD839\uDE00 b"))).isEqualTo("a\uD839\uDE00 b");
+        assertThat(BlockDelta.apply("😀", BlockDelta.diff("😀", "😃"))).isEqualTo("😃");
+        assertThat(BlockDelta.apply("a😀", BlockDelta.diff("a😀", "a"))).isEqualTo("a");
+        assertThat(BlockDelta.apply("a", BlockDelta.diff("a", "a😀"))).isEqualTo("a😀");
+    }
+
+    @Test
+    void testSmallEditsHaveSmallDeltas() {
+        String base = "Lorem ipsum dolor sit amet. ".repeat(100);
+        String target = base.substring(0, 1400) + "consectetur" + base.substring(1400);
+
+        assertThat(BlockDelta.diff(base, target)).hasSize(4 + "consectetur".length());
+    }
+
+    @Test
+    void testInvalidDeltas() {
+        byte[] delta = BlockDelta.diff("short base", "short base, longer target");
+
+        assertThatThrownBy(() -> BlockDelta.apply("tiny", delta)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BlockDelta.apply("tiny", new byte[0])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BlockDelta.apply("tiny", new byte[] { (byte) 0x80 })).isInstanceOf(IllegalArgumentException.class);
+    }
+}
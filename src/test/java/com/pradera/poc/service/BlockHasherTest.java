@@ -0,0 +1,34 @@
+package com.pradera.poc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pradera.poc.domain.enumeration.BlockType;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link BlockHasher} utility class.
+ */
+class BlockHasherTest {
+
+    @Test
+    void testHashIsHexEncodedSha256OfTypeAndContent() {
+        // echo -n "PARAGRAPH:Hello world" | sha256sum
+        assertThat(BlockHasher.hash(BlockType.PARAGRAPH, "Hello world"))
+            .isEqualTo("7a2ab40a80de7f0935224715c357c2c9c898b0a03993b9fe5d04d30281fbccf1");
+    }
+
+    @Test
+    void testHashDependsOnType() {
+        assertThat(BlockHasher.hash(BlockType.TITLE, "Hello world")).isNotEqualTo(BlockHasher.hash(BlockType.PARAGRAPH, "Hello world"));
+    }
+
+    @Test
+    void testNormalize() {
+        assertThat(BlockHasher.normalize(null)).isEmpty();
+        assertThat(BlockHasher.normalize("a\r\nb\rc\n")).isEqualTo("a\nb\nc\n");
+        // decomposed "é" is stored as the precomposed character
+        assertThat(BlockHasher.normalize("cafe\u0301")).isEqualTo("caf\u00e9");
+        assertThat(BlockHasher.hash(BlockType.PARAGRAPH, BlockHasher.normalize("cafe\u0301")))
+            .isEqualTo(BlockHasher.hash(BlockType.PARAGRAPH, "caf\u00e9"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.pradera.poc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pradera.poc.IntegrationTest;
+import com.pradera.poc.domain.Book;
+import com.pradera.poc.repository.BookRepository;
+import com.pradera.poc.repository.SliceJpaRepository;
+import com.pradera.poc.service.criteria.BookCriteria;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for the query cache of the criteria queries, see {@link SliceJpaRepository}.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+    }
+)
+class CriteriaQueryCacheIT {
+
+    private static final String REGION = SliceJpaRepository.criteriaQueryRegion(Book.class);
+
+    @Autowired
+    private BookQueryService bookQueryService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Book> books = new ArrayList<>();
+
+    private BookCriteria criteria;
+
+    @BeforeEach
+    void setupData() {
+        String title = RandomStringUtils.randomAlphabetic(10);
+        books.add(bookRepository.saveAndFlush(new Book().title(title)));
+        criteria = new BookCriteria();
+        criteria.title().setEquals(title);
+    }
+
+    @AfterEach
+    void deleteData() {
+        bookRepository.deleteAll(books);
+    }
+
+    @Test
+    void criteriaQueriesAreServedFromTheQueryCache() {
+        assertThat(bookQueryService.countByCriteria(criteria)).isEqualTo(1);
+        assertThat(bookQueryService.findByCriteria(criteria, PageRequest.of(0, 20)).getContent()).containsExactlyElementsOf(books);
+        double hits = hits();
+
+        assertThat(bookQueryService.countByCriteria(criteria)).isEqualTo(1);
+        assertThat(bookQueryService.findByCriteria(criteria, PageRequest.of(0, 20)).getContent()).containsExactlyElementsOf(books);
+
+        assertThat(hits()).isEqualTo(hits + 2);
+    }
+
+    @Test
+    void writesToTheQueriedTablesInvalidateTheCachedResults() {
+        assertThat(bookQueryService.countByCriteria(criteria)).isEqualTo(1);
+
+        books.add(bookRepository.saveAndFlush(new Book().title(criteria.getTitle().getEquals())));
+
+        assertThat(bookQueryService.countByCriteria(criteria)).isEqualTo(2);
+    }
+
+    private double hits() {
+        return meterRegistry.get("cache.gets").tag("cache", REGION).tag("result", "hit").functionCounter().count();
+    }
+}
@@ -0,0 +1,71 @@
+package com.pradera.poc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class DocStateUpdateTimerTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void testSaveIsRecordedWhenTheTransactionCompletes() {
+        DocStateUpdateTimer timer = DocStateUpdateTimer.start(meterRegistry);
+        for (int i = 0; i < 12; i++) {
+            timer.node(i < 3);
+        }
+
+        assertThat(meterRegistry.find(DocStateUpdateTimer.METRIC_NAME).timer()).isNull();
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).containsExactly(timer);
+
+        timer.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(
+            meterRegistry
+                .get(DocStateUpdateTimer.METRIC_NAME)
+                .tag("nodes", "<=100")
+                .tag("changed", "<=10")
+                .tag("outcome", "committed")
+                .timer()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testRolledBackSavesAreTaggedAsSuch() {
+        DocStateUpdateTimer.start(meterRegistry).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(
+            meterRegistry.get(DocStateUpdateTimer.METRIC_NAME).tag("nodes", "0").tag("outcome", "rolled-back").timer().count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testCountsAreBucketedByOrderOfMagnitude() {
+        assertThat(DocStateUpdateTimer.bucket(0)).isEqualTo("0");
+        assertThat(DocStateUpdateTimer.bucket(1)).isEqualTo("<=10");
+        assertThat(DocStateUpdateTimer.bucket(10)).isEqualTo("<=10");
+        assertThat(DocStateUpdateTimer.bucket(11)).isEqualTo("<=100");
+        assertThat(DocStateUpdateTimer.bucket(10_000)).isEqualTo("<=10000");
+        assertThat(DocStateUpdateTimer.bucket(10_001)).isEqualTo(">10000");
+    }
+}
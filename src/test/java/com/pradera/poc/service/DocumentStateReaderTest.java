@@ -0,0 +1,89 @@
+package com.pradera.poc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pradera.poc.service.dto.DocumentNodeDTO;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link DocumentStateReader} utility class.
+ */
+class DocumentStateReaderTest {
+
+    private DocumentStateReader documentStateReader;
+
+    @BeforeEach
+    void setup() {
+        documentStateReader = new DocumentStateReader(new ObjectMapper());
+    }
+
+    @Test
+    void testReadSampleDocumentState() throws IOException {
+        try (InputStream jsonStream = this.getClass().getResourceAsStream("/docstate.json")) {
+            List<DocumentNodeDTO> nodes = readAll(documentStateReader.read(jsonStream));
+
+            assertThat(nodes).extracting(DocumentNodeDTO::getType).containsExactly("heading", "paragraph", "paragraph");
+            assertThat(nodes).extracting(DocumentNodeDTO::getText).containsExactly("This is a Title", "Hello world", "bye.");
+            assertThat(nodes).extracting(DocumentNodeDTO::getBlockId).containsExactly(1L, 2L, 3L);
+        }
+    }
+
+    @Test
+    void testUnsavedAndEmptyNodes() {
+        List<DocumentNodeDTO> nodes = readAll(
+            "{'content':[" +
+            "{'type':'paragraph','attrs':{'blockId':''},'content':[{'type':'text','text':'new'}]}," +
+            "{'type':'paragraph','attrs':{'blockId':null}}," +
+            "{'type':'paragraph','attrs':{'blockId':'42'},'content':[]}" +
+            "],'type':'doc'}"
+        );
+
+        assertThat(nodes).extracting(DocumentNodeDTO::getBlockId).containsExactly(null, null, 42L);
+        assertThat(nodes).extracting(DocumentNodeDTO::getText).containsExactly("new", "", "");
+    }
+
+    @Test
+    void testUnknownFieldsAndInlineNodesAreSkipped() {
+        List<DocumentNodeDTO> nodes = readAll(
+            "{'type':'doc','meta':{'content':[1,2]},'content':[" +
+            "{'marks':[{'type':'bold'}],'type':'heading','attrs':{'level':1,'blockId':7}," +
+            "'content':[{'type':'text','marks':[],'text':'first'},{'type':'text','text':'second'}]}" +
+            "]}"
+        );
+
+        assertThat(nodes).hasSize(1);
+        assertThat(nodes.get(0).getType()).isEqualTo("heading");
+        assertThat(nodes.get(0).getBlockId()).isEqualTo(7L);
+        assertThat(nodes.get(0).getText()).isEqualTo("first");
+    }
+
+    @Test
+    void testInvalidDocumentStates() {
+        assertThatThrownBy(() -> readAll("{'type':'doc'}")).isInstanceOf(InvalidDocumentStateException.class);
+        assertThatThrownBy(() -> readAll("[]")).isInstanceOf(InvalidDocumentStateException.class);
+        assertThatThrownBy(() -> readAll("{'content':[{'type':'paragraph'},")).isInstanceOf(InvalidDocumentStateException.class);
+        assertThatThrownBy(() -> readAll("{'content':[{'attrs':{}}]}")).isInstanceOf(InvalidDocumentStateException.class);
+        assertThatThrownBy(() -> readAll("{'content':[{'type':'paragraph','attrs':{'blockId':'x'}}]}"))
+            .isInstanceOf(InvalidDocumentStateException.class);
+    }
+
+    private List<DocumentNodeDTO> readAll(String json) {
+        return readAll(documentStateReader.read(new ByteArrayInputStream(json.replace('\'', '"').getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static List<DocumentNodeDTO> readAll(Iterator<DocumentNodeDTO> nodes) {
+        List<DocumentNodeDTO> result = new ArrayList<>();
+        nodes.forEachRemaining(result::add);
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package com.pradera.poc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pradera.poc.service.dto.DocumentNodeDTO;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link DocumentStateWriter} utility class.
+ */
+class DocumentStateWriterTest {
+
+    private ObjectMapper objectMapper;
+
+    private DocumentStateWriter documentStateWriter;
+
+    @BeforeEach
+    void setup() {
+        objectMapper = new ObjectMapper();
+        documentStateWriter = new DocumentStateWriter(objectMapper);
+    }
+
+    @Test
+    void testWriteHasTheShapeOfTheSampleDocumentState() throws IOException {
+        List<DocumentNodeDTO> nodes = List.of(
+            new DocumentNodeDTO("heading", "This is a Title", 1L),
+            new DocumentNodeDTO("paragraph", "Hello world", 2L),
+            new DocumentNodeDTO("paragraph", "bye.", 3L)
+        );
+
+        JsonNode written = objectMapper.readTree(write(nodes));
+
+        assertThat(written).isEqualTo(objectMapper.readTree(this.getClass().getResourceAsStream("/docstate.json")));
+    }
+
+    @Test
+    void testWriteCanBeReadBack() throws IOException {
+        List<DocumentNodeDTO> nodes = List.of(
+            new DocumentNodeDTO("paragraph", "", 4L),
+            new DocumentNodeDTO("heading", "\"quoted\" é", 5L)
+        );
+
+        List<DocumentNodeDTO> read = new ArrayList<>();
+        new DocumentStateReader(objectMapper).read(new ByteArrayInputStream(write(nodes))).forEachRemaining(read::add);
+
+        assertThat(read).extracting(DocumentNodeDTO::getType).containsExactly("paragraph", "heading");
+        assertThat(read).extracting(DocumentNodeDTO::getText).containsExactly("", "\"quoted\" é");
+        assertThat(read).extracting(DocumentNodeDTO::getBlockId).containsExactly(4L, 5L);
+    }
+
+    private byte[] write(List<DocumentNodeDTO> nodes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        documentStateWriter.write(nodes.iterator(), outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,196 @@
+package com.pradera.poc.service;
+
+import static com.pradera.poc.domain.FlowBlock.BLOCK_ORDER_GAP;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pradera.poc.IntegrationTest;
+import com.pradera.poc.domain.Block;
+import com.pradera.poc.domain.Flow;
+import com.pradera.poc.domain.FlowBlock;
+import com.pradera.poc.domain.User;
+import com.pradera.poc.domain.enumeration.BlockType;
+import com.pradera.poc.repository.FlowBlockRepository;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the block ordering of {@link FlowBlockService}.
+ */
+@IntegrationTest
+@Transactional
+class FlowBlockServiceIT {
+
+    @Autowired
+    private FlowBlockService flowBlockService;
+
+    @Autowired
+    private FlowBlockRepository flowBlockRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    private Flow flow;
+
+    @BeforeEach
+    void setupData() {
+        user = new User();
+        user.setLogin("flow-block-" + RandomStringUtils.randomAlphabetic(5).toLowerCase());
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setEmail(RandomStringUtils.randomAlphabetic(5) + "@localhost");
+        em.persist(user);
+
+        flow = Flow.Builder.aFlow().name("ordering").user(user).build();
+        em.persist(flow);
+    }
+
+    @Test
+    void insertAfterTakesTheMidpointOfItsNeighbours() {
+        List<FlowBlock> flowBlocks = createFlowBlocks(BLOCK_ORDER_GAP, 2 * BLOCK_ORDER_GAP);
+
+        FlowBlock top = flowBlockService.insertAfter(newFlowBlock(), null);
+        FlowBlock middle = flowBlockService.insertAfter(newFlowBlock(), flowBlocks.get(0).getId());
+        FlowBlock end = flowBlockService.insertAfter(newFlowBlock(), flowBlocks.get(1).getId());
+
+        assertThat(top.getBlockOrder()).isEqualTo(BLOCK_ORDER_GAP / 2);
+        assertThat(middle.getBlockOrder()).isEqualTo(BLOCK_ORDER_GAP + BLOCK_ORDER_GAP / 2);
+        assertThat(end.getBlockOrder()).isEqualTo(3 * BLOCK_ORDER_GAP);
+        assertThat(flowBlocks).extracting(FlowBlock::getBlockOrder).containsExactly(BLOCK_ORDER_GAP, 2 * BLOCK_ORDER_GAP);
+        assertThat(orderedIds())
+            .containsExactly(top.getId(), flowBlocks.get(0).getId(), middle.getId(), flowBlocks.get(1).getId(), end.getId());
+    }
+
+    @Test
+    void insertAfterRenumbersTheFlowWhenThereIsNoRoomLeft() {
+        List<FlowBlock> flowBlocks = createFlowBlocks(1L, 2L, 3L);
+
+        FlowBlock inserted = flowBlockService.insertAfter(newFlowBlock(), flowBlocks.get(0).getId());
+        em.flush();
+
+        assertThat(orderedIds())
+            .containsExactly(flowBlocks.get(0).getId(), inserted.getId(), flowBlocks.get(1).getId(), flowBlocks.get(2).getId());
+        assertThat(flowBlocks)
+            .extracting(FlowBlock::getBlockOrder)
+            .containsExactly(BLOCK_ORDER_GAP, 2 * BLOCK_ORDER_GAP, 3 * BLOCK_ORDER_GAP);
+    }
+
+    @Test
+    void moveAfterOnlyUpdatesTheMovedBlock() {
+        List<FlowBlock> flowBlocks = createFlowBlocks(BLOCK_ORDER_GAP, 2 * BLOCK_ORDER_GAP, 3 * BLOCK_ORDER_GAP);
+
+        flowBlockService.moveAfter(flowBlocks.get(2).getId(), null);
+        em.flush();
+
+        assertThat(orderedIds()).containsExactly(flowBlocks.get(2).getId(), flowBlocks.get(0).getId(), flowBlocks.get(1).getId());
+        assertThat(flowBlocks.get(0).getBlockOrder()).isEqualTo(BLOCK_ORDER_GAP);
+        assertThat(flowBlocks.get(1).getBlockOrder()).isEqualTo(2 * BLOCK_ORDER_GAP);
+    }
+
+    @Test
+    void assignBlockOrdersKeepsTheOrderOfBlocksThatDidNotMove() {
+        List<FlowBlock> flowBlocks = createFlowBlocks(BLOCK_ORDER_GAP, 2 * BLOCK_ORDER_GAP, 3 * BLOCK_ORDER_GAP, 4 * BLOCK_ORDER_GAP);
+        FlowBlock inserted = newFlowBlock();
+
+        // move the last block to the top and insert a new one in the middle
+        List<FlowBlock> reordered = List.of(flowBlocks.get(3), flowBlocks.get(0), flowBlocks.get(1), inserted, flowBlocks.get(2));
+        flowBlockService.assignBlockOrders(reordered);
+
+        assertThat(flowBlocks.get(0).getBlockOrder()).isEqualTo(BLOCK_ORDER_GAP);
+        assertThat(flowBlocks.get(1).getBlockOrder()).isEqualTo(2 * BLOCK_ORDER_GAP);
+        assertThat(flowBlocks.get(2).getBlockOrder()).isEqualTo(3 * BLOCK_ORDER_GAP);
+        assertThat(reordered).extracting(FlowBlock::getBlockOrder).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void deleteByFlowIdIsASingleStatement() {
+        Flow deletedFlow = flow;
+        List<FlowBlock> deletedFlowBlocks = createFlowBlocks(
+            BLOCK_ORDER_GAP,
+            2 * BLOCK_ORDER_GAP,
+            3 * BLOCK_ORDER_GAP,
+            4 * BLOCK_ORDER_GAP
+        );
+        flow = Flow.Builder.aFlow().name("kept").user(user).build();
+        em.persist(flow);
+        List<FlowBlock> keptFlowBlocks = createFlowBlocks(BLOCK_ORDER_GAP, 2 * BLOCK_ORDER_GAP);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            assertThat(flowBlockService.deleteByFlowId(deletedFlow.getId())).isEqualTo(deletedFlowBlocks.size());
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+
+        assertThat(flowBlockRepository.findByFlowIdWithBlocks(deletedFlow.getId())).isEmpty();
+        assertThat(orderedIds()).containsExactly(keptFlowBlocks.get(0).getId(), keptFlowBlocks.get(1).getId());
+    }
+
+    @Test
+    void deleteByFlowIdAndIdInIsASingleStatement() {
+        List<FlowBlock> flowBlocks = createFlowBlocks(BLOCK_ORDER_GAP, 2 * BLOCK_ORDER_GAP, 3 * BLOCK_ORDER_GAP, 4 * BLOCK_ORDER_GAP);
+        List<Long> deletedIds = List.of(flowBlocks.get(0).getId(), flowBlocks.get(2).getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            assertThat(flowBlockService.deleteByFlowIdAndIdIn(flow.getId(), deletedIds)).isEqualTo(deletedIds.size());
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(statistics.getEntityLoadCount()).isZero();
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+
+        assertThat(orderedIds()).containsExactly(flowBlocks.get(1).getId(), flowBlocks.get(3).getId());
+    }
+
+    private FlowBlock newFlowBlock() {
+        Block block = Block.Builder
+            .aBlock()
+            .type(BlockType.PARAGRAPH)
+            .content(RandomStringUtils.randomAlphabetic(10))
+            .hash("hash")
+            .createdDate(ZonedDateTime.now())
+            .user(user)
+            .build();
+        em.persist(block);
+        return FlowBlock.Builder.aFlowBlock().flow(flow).block(block).build();
+    }
+
+    private List<FlowBlock> createFlowBlocks(Long... blockOrders) {
+        List<FlowBlock> flowBlocks = new ArrayList<>();
+        for (Long blockOrder : blockOrders) {
+            FlowBlock flowBlock = newFlowBlock();
+            flowBlock.setBlockOrder(blockOrder);
+            em.persist(flowBlock);
+            flowBlocks.add(flowBlock);
+        }
+        em.flush();
+        return flowBlocks;
+    }
+
+    private List<Long> orderedIds() {
+        return flowBlockRepository.findByFlowIdWithBlocks(flow.getId()).stream().map(FlowBlock::getId).collect(Collectors.toList());
+    }
+}
@@ -1,29 +1,43 @@
 package com.pradera.poc.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.pradera.poc.IntegrationTest;
+import com.pradera.poc.config.ApplicationProperties;
 import com.pradera.poc.domain.Block;
 import com.pradera.poc.domain.Flow;
 import com.pradera.poc.domain.FlowBlock;
+import com.pradera.poc.domain.User;
 import com.pradera.poc.domain.enumeration.BlockType;
+import com.pradera.poc.repository.BlockRepository;
 import com.pradera.poc.repository.FlowBlockRepository;
 import com.pradera.poc.repository.FlowRepository;
-import java.io.BufferedReader;
+import com.pradera.poc.repository.FlowSnapshotRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
 @IntegrationTest
@@ -37,46 +51,505 @@ class FlowServiceTestIT {
     private FlowRepository flowRepository;
 
     @Autowired
-    private FlowRepository blockRepository;
+    private BlockRepository blockRepository;
 
     @Autowired
     private FlowBlockRepository flowBlockRepository;
 
+    @Autowired
+    private FlowSnapshotRepository flowSnapshotRepository;
+
+    @Autowired
+    private FlowBlockService flowBlockService;
+
+    @Autowired
+    private BlockService blockService;
+
+    @Autowired
+    private DocumentStateReader documentStateReader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BlockQueryService blockQueryService;
+
+    private User user;
+
+    private Flow official;
+
+    private List<Long> originalFlowBlockIds;
+
+    private List<Long> originalBlockIds;
+
     @BeforeEach
     void setupData() {
-        Flow flow = Flow.Builder.aFlow().name("official").build();
+        user = new User();
+        user.setLogin("flow-writer-" + RandomStringUtils.randomAlphabetic(5).toLowerCase());
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setEmail(RandomStringUtils.randomAlphabetic(5) + "@localhost");
+        em.persist(user);
 
-        flow.addBlocks(Block.Builder.aBlock().content("This is a Title").type(BlockType.TITLE).build());
-        flow.addBlocks(Block.Builder.aBlock().content("Hello world").type(BlockType.PARAGRAPH).build());
-        flow.addBlocks(Block.Builder.aBlock().content("bye").type(BlockType.PARAGRAPH).build());
+        official = Flow.Builder.aFlow().name("official").user(user).build();
+        flowRepository.save(official);
 
-        flowRepository.saveAndFlush(flow);
+        long order = 1;
+        for (Block block : List.of(
+            createBlock(BlockType.TITLE, "This is a Title"),
+            createBlock(BlockType.PARAGRAPH, "Hello world"),
+            createBlock(BlockType.PARAGRAPH, "bye.")
+        )) {
+            blockRepository.save(block);
+            flowBlockRepository.save(
+                FlowBlock.Builder.aFlowBlock().flow(official).block(block).blockOrder(order++ * FlowBlock.BLOCK_ORDER_GAP).build()
+            );
+        }
+        em.flush();
+        List<FlowBlock> flowBlocks = flowBlockRepository.findByFlowIdWithBlocks(official.getId());
+        originalFlowBlockIds = flowBlocks.stream().map(FlowBlock::getId).collect(Collectors.toList());
+        originalBlockIds = flowBlocks.stream().map(flowBlock -> flowBlock.getBlock().getId()).collect(Collectors.toList());
     }
 
     @Test
-    void assertThatUploadDocumentReplacesOldFlow() throws JsonProcessingException {
-        List<Flow> all = flowRepository.findAll();
-        assertThat(all).hasSize(1);
-        Flow official = all.get(0);
-
-        Set<FlowBlock> blocks = official.getBlocks();
-        assertThat(blocks).hasSize(3);
-
-        InputStream jsonStream = this.getClass().getResourceAsStream("/docstate.json");
-        String json = new BufferedReader(new InputStreamReader(jsonStream, StandardCharsets.UTF_8))
-            .lines()
-            .collect(Collectors.joining("\n"));
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode docStateJson = objectMapper.readTree(json);
+    void assertThatUploadDocumentReplacesOldFlow() throws IOException {
+        JsonNode docStateJson = readDocState();
 
         ObjectNode titleNode = (ObjectNode) docStateJson.get("content").get(0);
         ObjectNode titleNodeFirstItem = (ObjectNode) titleNode.get("content").get(0);
         titleNodeFirstItem.put("text", "New title");
-        Optional<Flow> updatedFlow = flowService.updateDocState(currentUser, official.getId(), docStateJson);
+        Optional<Flow> updatedFlow = upload(docStateJson);
+        em.flush();
 
         assertThat(updatedFlow).isPresent();
+        assertThat(contentOf(official)).containsExactly("New title", "Hello world", "bye.");
+    }
+
+    @Test
+    void assertThatUploadDocumentOnlyRewritesChangedRows() throws IOException {
+        JsonNode docStateJson = readDocState();
+        ObjectNode titleNodeFirstItem = (ObjectNode) docStateJson.get("content").get(0).get("content").get(0);
+        titleNodeFirstItem.put("text", "New title");
+
+        upload(docStateJson);
+        em.flush();
+
+        List<FlowBlock> flowBlocks = flowBlockRepository.findByFlowIdWithBlocks(official.getId());
+        assertThat(flowBlocks).extracting(FlowBlock::getId).containsExactlyElementsOf(originalFlowBlockIds);
+        Block newTitle = flowBlocks.get(0).getBlock();
+        assertThat(newTitle.getId()).isNotEqualTo(originalBlockIds.get(0));
+        assertThat(newTitle.getParent().getId()).isEqualTo(originalBlockIds.get(0));
+        assertThat(flowBlocks.get(1).getBlock().getId()).isEqualTo(originalBlockIds.get(1));
+        assertThat(flowBlocks.get(2).getBlock().getId()).isEqualTo(originalBlockIds.get(2));
+    }
+
+    @Test
+    void assertThatUploadDocumentInsertsMovesAndRemovesBlocks() throws IOException {
+        JsonNode docStateJson = readDocState();
+        ArrayNode content = (ArrayNode) docStateJson.get("content");
+        // drop "Hello world", add a new paragraph at the top
+        content.remove(1);
+        ObjectNode newParagraph = content.insertObject(0);
+        newParagraph.put("type", "paragraph");
+        newParagraph.putObject("attrs").put("blockId", "");
+        newParagraph.putArray("content").addObject().put("type", "text").put("text", "Once upon a time");
+
+        upload(docStateJson);
+        em.flush();
+
+        List<FlowBlock> flowBlocks = flowBlockRepository.findByFlowIdWithBlocks(official.getId());
+        assertThat(flowBlocks)
+            .extracting(FlowBlock::getBlockOrder)
+            .containsExactly(FlowBlock.BLOCK_ORDER_GAP / 2, FlowBlock.BLOCK_ORDER_GAP, 3 * FlowBlock.BLOCK_ORDER_GAP);
+        assertThat(contentOf(official)).containsExactly("Once upon a time", "This is a Title", "bye.");
+        assertThat(flowBlocks.get(1).getId()).isEqualTo(originalFlowBlockIds.get(0));
+        assertThat(flowBlocks.get(2).getId()).isEqualTo(originalFlowBlockIds.get(2));
+        assertThat(flowBlockRepository.findById(originalFlowBlockIds.get(1))).isEmpty();
+    }
+
+    @Test
+    void assertThatUploadDocumentDoesNotLoadTheContentOfUnchangedBlocks() throws IOException {
+        JsonNode docStateJson = readDocState();
+        em.clear();
+
+        upload(docStateJson);
+        em.flush();
+
+        for (Long blockId : originalBlockIds) {
+            assertThat(Hibernate.isPropertyInitialized(em.find(Block.class, blockId), "content")).isFalse();
+        }
+    }
+
+    @Test
+    void assertThatUploadDocumentKeepsUnchangedBlocksWithoutContentHash() throws IOException {
+        for (Long blockId : originalBlockIds) {
+            blockRepository.findById(blockId).orElseThrow().setHash("seudohash");
+        }
+        em.flush();
+
+        upload(readDocState());
+        em.flush();
+
+        List<FlowBlock> flowBlocks = flowBlockRepository.findByFlowIdWithBlocks(official.getId());
+        assertThat(flowBlocks).extracting(flowBlock -> flowBlock.getBlock().getId()).containsExactlyElementsOf(originalBlockIds);
+    }
+
+    @Test
+    void assertThatUploadDocumentReusesBlocksWithTheSameContent() throws IOException {
+        JsonNode docStateJson = readDocState();
+        ArrayNode content = (ArrayNode) docStateJson.get("content");
+        // paste "bye." twice more at the end, and edit "Hello world" into "bye." as well
+        for (int i = 0; i < 2; i++) {
+            ObjectNode pasted = content.addObject();
+            pasted.put("type", "paragraph");
+            pasted.putObject("attrs").put("blockId", "");
+            pasted.putArray("content").addObject().put("type", "text").put("text", "bye.");
+        }
+        ((ObjectNode) content.get(1).get("content").get(0)).put("text", "bye.");
+        int databaseSizeBeforeUpload = blockRepository.findAll().size();
+
+        upload(docStateJson);
+        em.flush();
+
+        List<FlowBlock> flowBlocks = flowBlockRepository.findByFlowIdWithBlocks(official.getId());
+        assertThat(flowBlocks)
+            .extracting(flowBlock -> flowBlock.getBlock().getId())
+            .containsExactly(
+                originalBlockIds.get(0),
+                originalBlockIds.get(2),
+                originalBlockIds.get(2),
+                originalBlockIds.get(2),
+                originalBlockIds.get(2)
+            );
+        assertThat(blockRepository.findAll()).hasSize(databaseSizeBeforeUpload);
+    }
+
+    @Test
+    void assertThatUploadDocumentStoresRepeatedNewContentOnce() throws IOException {
+        JsonNode docStateJson = readDocState();
+        ArrayNode content = (ArrayNode) docStateJson.get("content");
+        for (int i = 0; i < 3; i++) {
+            ObjectNode pasted = content.addObject();
+            pasted.put("type", "paragraph");
+            pasted.putObject("attrs").put("blockId", "");
+            pasted.putArray("content").addObject().put("type", "text").put("text", "The end\r\n");
+        }
+
+        upload(docStateJson);
+        em.flush();
+
+        List<FlowBlock> flowBlocks = flowBlockRepository.findByFlowIdWithBlocks(official.getId());
+        assertThat(flowBlocks).hasSize(6);
+        Block theEnd = flowBlocks.get(3).getBlock();
+        assertThat(flowBlocks.subList(3, 6)).extracting(FlowBlock::getBlock).containsOnly(theEnd);
+        assertThat(theEnd.getContent()).isEqualTo("The end\n");
+        assertThat(theEnd.getHash()).isEqualTo(BlockHasher.hash(BlockType.PARAGRAPH, "The end\n"));
+    }
+
+    @Test
+    void assertThatUploadDocumentSavesTheNodesInChunks() throws IOException {
+        FlowService target = AopTestUtils.getTargetObject(flowService);
+        Object chunkSize = ReflectionTestUtils.getField(target, "chunkSize");
+        ReflectionTestUtils.setField(target, "chunkSize", 2);
+        try {
+            JsonNode docStateJson = readDocState();
+            ArrayNode content = (ArrayNode) docStateJson.get("content");
+            // edit the title, drop "Hello world", and paste "The end" across two chunks
+            ((ObjectNode) content.get(0).get("content").get(0)).put("text", "New title");
+            content.remove(1);
+            for (int i = 0; i < 3; i++) {
+                ObjectNode pasted = content.addObject();
+                pasted.put("type", "paragraph");
+                pasted.putObject("attrs").put("blockId", "");
+                pasted.putArray("content").addObject().put("type", "text").put("text", "The end");
+            }
+
+            upload(docStateJson);
+            em.flush();
+            em.clear();
+
+            List<FlowBlock> flowBlocks = flowBlockRepository.findByFlowIdWithBlocks(official.getId());
+            assertThat(flowBlocks)
+                .extracting(flowBlock -> flowBlock.getBlock().getContent())
+                .containsExactly("New title", "bye.", "The end", "The end", "The end");
+            assertThat(flowBlocks.get(0).getId()).isEqualTo(originalFlowBlockIds.get(0));
+            assertThat(flowBlocks.get(0).getBlock().getParent().getId()).isEqualTo(originalBlockIds.get(0));
+            assertThat(flowBlocks.get(1).getId()).isEqualTo(originalFlowBlockIds.get(2));
+            assertThat(flowBlocks.subList(2, 5))
+                .extracting(flowBlock -> flowBlock.getBlock().getId())
+                .containsOnly(flowBlocks.get(2).getBlock().getId());
+            assertThat(flowBlockRepository.findById(originalFlowBlockIds.get(1))).isEmpty();
+            assertThat(writtenTexts()).containsExactly("New title", "bye.", "The end", "The end", "The end");
+        } finally {
+            ReflectionTestUtils.setField(target, "chunkSize", chunkSize);
+        }
+    }
+
+    @Test
+    void assertThatUploadDocumentRejectsUnknownNodeTypes() throws IOException {
+        JsonNode docStateJson = readDocState();
+        ((ObjectNode) docStateJson.get("content").get(1)).put("type", "table");
+
+        assertThatThrownBy(() -> upload(docStateJson)).isInstanceOf(InvalidDocumentStateException.class).hasMessageContaining("table");
+    }
+
+    @Test
+    void assertThatUploadDocumentKeepsTheLineageOfRevisions() throws IOException {
+        JsonNode docStateJson = readDocState();
+        ObjectNode titleNodeFirstItem = (ObjectNode) docStateJson.get("content").get(0).get("content").get(0);
+        titleNodeFirstItem.put("text", "New title");
+        upload(docStateJson);
+        em.flush();
+        Block newTitle = flowBlockRepository.findByFlowIdWithBlocks(official.getId()).get(0).getBlock();
+        ((ObjectNode) docStateJson.get("content").get(0).get("attrs")).put("blockId", newTitle.getId());
+        titleNodeFirstItem.put("text", "Newer title");
+        upload(docStateJson);
+        em.flush();
+        em.clear();
+
+        Long titleRootId = originalBlockIds.get(0);
+        List<Block> revisions = blockRepository.findByRootIdOrderByDepthAscIdAsc(titleRootId);
+        assertThat(revisions).extracting(Block::getContent).containsExactly("This is a Title", "New title", "Newer title");
+        assertThat(revisions).extracting(Block::getDepth).containsExactly(0, 1, 2);
+        assertThat(blockRepository.findLatestRevisionsByRootIdIn(List.of(titleRootId, originalBlockIds.get(1))))
+            .extracting(Block::getContent)
+            .containsExactlyInAnyOrder("Newer title", "Hello world");
+    }
+
+    @Test
+    void assertThatUploadDocumentStoresASnapshot() throws IOException {
+        JsonNode docStateJson = readDocState();
+        ((ObjectNode) docStateJson.get("content").get(1).get("content").get(0)).put("text", "Hello snapshot");
+        upload(docStateJson);
+        em.flush();
+
+        assertThat(flowSnapshotRepository.findDataByFlowId(official.getId())).isPresent();
+        flowBlockRepository.findByFlowIdWithBlocks(official.getId()).get(1).getBlock().setContent("changed behind the snapshot");
+        em.flush();
+        em.clear();
+
+        assertThat(writtenTexts()).containsExactly("This is a Title", "Hello snapshot", "bye.");
+    }
+
+    @Test
+    void assertThatStaleSnapshotsAreNotRead() throws IOException {
+        upload(readDocState());
+        em.flush();
+
+        flowBlockService.moveAfter(originalFlowBlockIds.get(0), originalFlowBlockIds.get(2));
+        em.flush();
+
+        assertThat(writtenTexts()).containsExactly("Hello world", "bye.", "This is a Title");
+    }
+
+    @Test
+    void assertThatEditingABlockDeletesTheSnapshots() throws IOException {
+        upload(readDocState());
+        em.flush();
+
+        Block block = new Block();
+        block.setId(originalBlockIds.get(1));
+        block.setContent("Hello again");
+        blockService.partialUpdate(block);
+        em.flush();
+
+        assertThat(flowSnapshotRepository.findDataByFlowId(official.getId())).isEmpty();
+        assertThat(writtenTexts()).containsExactly("This is a Title", "Hello again", "bye.");
+    }
+
+    @Test
+    void assertThatUploadingAnUnchangedDocumentKeepsTheSnapshot() throws IOException {
+        upload(readDocState());
+        em.flush();
+        byte[] snapshot = flowSnapshotRepository.findDataByFlowId(official.getId()).orElseThrow();
+        byte[] marker = { FlowSnapshotCodec.FORMAT_VERSION, FlowSnapshotCodec.UNCOMPRESSED, 0, 0 };
+        flowSnapshotRepository.updateData(official.getId(), marker);
+
+        upload(readDocState());
+        em.flush();
+        assertThat(flowSnapshotRepository.findDataByFlowId(official.getId())).get().isEqualTo(marker);
+
+        JsonNode docStateJson = readDocState();
+        ((ObjectNode) docStateJson.get("content").get(2).get("content").get(0)).put("text", "see you.");
+        upload(docStateJson);
+        em.flush();
+        assertThat(flowSnapshotRepository.findDataByFlowId(official.getId())).get().isNotEqualTo(marker).isNotEqualTo(snapshot);
+        assertThat(writtenTexts()).containsExactly("This is a Title", "Hello world", "see you.");
+    }
+
+    @Test
+    void assertThatSnapshotsOfAnotherFormatAreNotRead() throws IOException {
+        upload(readDocState());
+        em.flush();
+        flowSnapshotRepository.updateData(official.getId(), new byte[] { 1, 0, 1, 0, 2, 0 });
+
+        assertThat(writtenTexts()).containsExactly("This is a Title", "Hello world", "bye.");
+    }
+
+    @Test
+    void assertThatSnapshotsCanBeDisabled() throws IOException {
+        ApplicationProperties.FlowSnapshot flowSnapshot = applicationProperties.getFlowSnapshot();
+        flowSnapshot.setEnabled(false);
+        try {
+            JsonNode docStateJson = readDocState();
+            ((ObjectNode) docStateJson.get("content").get(1).get("content").get(0)).put("text", "Hello without snapshot");
+            upload(docStateJson);
+            em.flush();
+
+            assertThat(flowSnapshotRepository.findDataByFlowId(official.getId())).isEmpty();
+            assertThat(writtenTexts()).containsExactly("This is a Title", "Hello without snapshot", "bye.");
+        } finally {
+            flowSnapshot.setEnabled(true);
+        }
+    }
+
+    @Test
+    void assertThatRevisionsCanBeStoredAsDeltas() throws IOException {
+        ApplicationProperties.BlockStorage blockStorage = applicationProperties.getBlockStorage();
+        blockStorage.setDeltaEncoding(true);
+        blockStorage.setKeyframeInterval(2);
+        try {
+            List<String> titles = List.of(
+                "This is a Title",
+                "This is a Title, revised",
+                "This is a revised Title",
+                "This is a Title again"
+            );
+            JsonNode docStateJson = readDocState();
+            for (String title : titles.subList(1, titles.size())) {
+                ((ObjectNode) docStateJson.get("content").get(0).get("content").get(0)).put("text", title);
+                upload(docStateJson);
+                em.flush();
+                Block newTitle = flowBlockRepository.findByFlowIdWithBlocks(official.getId()).get(0).getBlock();
+                ((ObjectNode) docStateJson.get("content").get(0).get("attrs")).put("blockId", newTitle.getId());
+            }
+            em.clear();
+
+            List<Block> revisions = blockRepository.findByRootIdOrderByDepthAscIdAsc(originalBlockIds.get(0));
+            assertThat(revisions).extracting(Block::isDeltaEncoded).containsExactly(false, true, false, true);
+            for (int i = 0; i < revisions.size(); i++) {
+                assertThat(blockService.findOne(revisions.get(i).getId())).get().extracting(Block::getContent).isEqualTo(titles.get(i));
+            }
+            flowSnapshotRepository.deleteByFlowId(official.getId());
+            assertThat(writtenTexts()).containsExactly(titles.get(3), "Hello world", "bye.");
+
+            Block keyframe = new Block();
+            keyframe.setId(revisions.get(2).getId());
+            keyframe.setContent("Edited in place");
+            blockService.partialUpdate(keyframe);
+            em.flush();
+            em.clear();
+
+            Block lastRevision = blockRepository.findById(revisions.get(3).getId()).orElseThrow();
+            assertThat(lastRevision.isDeltaEncoded()).isFalse();
+            assertThat(lastRevision.getContent()).isEqualTo(titles.get(3));
+        } finally {
+            blockStorage.setDeltaEncoding(false);
+            blockStorage.setKeyframeInterval(16);
+        }
+    }
+
+    @Test
+    void assertThatDeltasAreReconstructedTogether() throws IOException {
+        ApplicationProperties.BlockStorage blockStorage = applicationProperties.getBlockStorage();
+        blockStorage.setDeltaEncoding(true);
+        try {
+            List<String> texts = List.of(
+                "This is a Title, with a few more words",
+                "Hello world, with a few more words",
+                "bye., with a few more words"
+            );
+            JsonNode docStateJson = readDocState();
+            for (int i = 0; i < texts.size(); i++) {
+                ((ObjectNode) docStateJson.get("content").get(i).get("content").get(0)).put("text", texts.get(i));
+            }
+            upload(docStateJson);
+            em.flush();
+            flowSnapshotRepository.deleteByFlowId(official.getId());
+            em.clear();
+            assertThat(blockRepository.findByFlowId(official.getId())).extracting(Block::isDeltaEncoded).containsOnly(true);
+
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            boolean statisticsEnabled = statistics.isStatisticsEnabled();
+            statistics.setStatisticsEnabled(true);
+            statistics.clear();
+            try {
+                assertThat(writtenTexts()).containsExactlyElementsOf(texts);
+                // the snapshot, the nodes, the delta chains and the keyframes missing from the cache
+                assertThat(statistics.getQueryExecutionCount()).isEqualTo(4);
+                statistics.clear();
+                em.clear();
+                assertThat(blockQueryService.findByFlowId(official.getId())).extracting(Block::getContent).containsExactlyElementsOf(texts);
+                // the blocks and the delta chains, the keyframes are cached
+                assertThat(statistics.getQueryExecutionCount()).isEqualTo(2);
+            } finally {
+                statistics.setStatisticsEnabled(statisticsEnabled);
+            }
+        } finally {
+            blockStorage.setDeltaEncoding(false);
+        }
+    }
+
+    @Test
+    void assertThatDeleteRemovesTheFlowBlocks() {
+        flowService.delete(official.getId());
+        em.flush();
+
+        assertThat(flowRepository.findById(official.getId())).isEmpty();
+        assertThat(flowBlockRepository.findByFlowIdWithBlocks(official.getId())).isEmpty();
+        assertThat(blockRepository.findById(originalBlockIds.get(0))).isPresent();
+    }
+
+    private Optional<Flow> upload(JsonNode docStateJson) throws IOException {
+        InputStream documentState = new ByteArrayInputStream(objectMapper.writeValueAsBytes(docStateJson));
+        return flowService.updateDocState(user.getLogin(), official.getId(), documentStateReader.read(documentState));
+    }
+
+    private List<String> writtenTexts() throws IOException {
+        ByteArrayOutputStream documentState = new ByteArrayOutputStream();
+        flowService.writeDocState(official.getId(), documentState);
+        List<String> texts = new ArrayList<>();
+        for (JsonNode node : objectMapper.readTree(documentState.toByteArray()).get("content")) {
+            texts.add(node.get("content").get(0).get("text").asText());
+        }
+        return texts;
+    }
+
+    private Block createBlock(BlockType type, String content) {
+        return Block.Builder
+            .aBlock()
+            .type(type)
+            .content(content)
+            .user(user)
+            .hash(BlockHasher.hash(type, content))
+            .createdDate(ZonedDateTime.now())
+            .build();
+    }
+
+    private List<String> contentOf(Flow flow) {
+        return blockRepository.findByFlowId(flow.getId()).stream().map(Block::getContent).collect(Collectors.toList());
+    }
 
-        assertThat(official.toString()).isEqualToIgnoringWhitespace("# New title\n" + "Hello world\n" + "bye.");
+    /**
+     * Reads the sample document state, pointing its nodes at the blocks created for this test.
+     */
+    private JsonNode readDocState() throws IOException {
+        try (InputStream jsonStream = this.getClass().getResourceAsStream("/docstate.json")) {
+            JsonNode docStateJson = objectMapper.readTree(jsonStream);
+            JsonNode content = docStateJson.get("content");
+            for (int i = 0; i < content.size(); i++) {
+                ((ObjectNode) content.get(i).get("attrs")).put("blockId", originalBlockIds.get(i));
+            }
+            return docStateJson;
+        }
     }
 }
@@ -0,0 +1,85 @@
+package com.pradera.poc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.pradera.poc.domain.enumeration.BlockType;
+import com.pradera.poc.service.dto.DocumentNodeDTO;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link FlowSnapshotCodec} utility class.
+ */
+class FlowSnapshotCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        List<DocumentNodeDTO> nodes = List.of(
+            new DocumentNodeDTO(BlockType.TITLE, "This is a Title", 1_000_000_000_123L),
+            new DocumentNodeDTO(BlockType.PARAGRAPH, "", 42L),
+            new DocumentNodeDTO(BlockType.CHAPTER, "Café ☕\nsecond line", Long.MAX_VALUE)
+        );
+
+        byte[] snapshot = FlowSnapshotCodec.encode(nodes);
+        List<DocumentNodeDTO> decoded = FlowSnapshotCodec.decode(snapshot);
+
+        assertThat(snapshot[1]).isEqualTo(FlowSnapshotCodec.UNCOMPRESSED);
+        assertThat(decoded).extracting(DocumentNodeDTO::getType).containsExactly("heading", "paragraph", "chapter");
+        assertThat(decoded).extracting(DocumentNodeDTO::getText).containsExactly("This is a Title", "", "Café ☕\nsecond line");
+        assertThat(decoded).extracting(DocumentNodeDTO::getBlockId).containsExactly(1_000_000_000_123L, 42L, Long.MAX_VALUE);
+    }
+
+    @Test
+    void testTypesAreStoredByName() {
+        List<DocumentNodeDTO> nodes = List.of(
+            new DocumentNodeDTO(BlockType.CHAPTER, "One", 1L),
+            new DocumentNodeDTO(BlockType.PARAGRAPH, "Two", 2L),
+            new DocumentNodeDTO(BlockType.CHAPTER, "Three", 3L)
+        );
+
+        byte[] snapshot = FlowSnapshotCodec.encode(nodes);
+
+        assertThat(new String(snapshot, StandardCharsets.UTF_8)).contains("CHAPTER", "PARAGRAPH").doesNotContain("TITLE");
+        assertThat(new String(snapshot, StandardCharsets.UTF_8).split("CHAPTER", -1)).hasSize(2);
+        assertThat(FlowSnapshotCodec.decode(snapshot)).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(nodes);
+    }
+
+    @Test
+    void testEmptyDocument() {
+        assertThat(FlowSnapshotCodec.decode(FlowSnapshotCodec.encode(List.of()))).isEmpty();
+    }
+
+    @Test
+    void testLargeDocumentsAreCompressed() {
+        List<DocumentNodeDTO> nodes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            nodes.add(new DocumentNodeDTO(BlockType.PARAGRAPH, "Paragraph number " + i + " of a long document.", 1_000_000L + i));
+        }
+
+        byte[] snapshot = FlowSnapshotCodec.encode(nodes);
+        List<DocumentNodeDTO> decoded = FlowSnapshotCodec.decode(snapshot);
+
+        assertThat(snapshot[1]).isEqualTo(FlowSnapshotCodec.DEFLATED);
+        assertThat(snapshot.length).isLessThan(nodes.size() * 10);
+        assertThat(decoded).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(nodes);
+    }
+
+    @Test
+    void testInvalidSnapshots() {
+        byte[] snapshot = FlowSnapshotCodec.encode(List.of(new DocumentNodeDTO(BlockType.PARAGRAPH, "Hello world", 7L)));
+
+        assertThatThrownBy(() -> FlowSnapshotCodec.decode(new byte[0])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FlowSnapshotCodec.decode(new byte[] { 99, 0, 0 })).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FlowSnapshotCodec.decode(Arrays.copyOf(snapshot, snapshot.length - 1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FlowSnapshotCodec.decode(new byte[] { 2, 1, 10, 1, 2, 3 })).isInstanceOf(IllegalArgumentException.class);
+        // snapshots of the previous format stored the ordinal of the type
+        assertThatThrownBy(() -> FlowSnapshotCodec.decode(new byte[] { 1, 0, 1, 1, 14, 0 })).isInstanceOf(IllegalArgumentException.class);
+        // unknown type name
+        assertThatThrownBy(() -> FlowSnapshotCodec.decode(new byte[] { 2, 0, 1, 1, 'X', 0 })).isInstanceOf(IllegalArgumentException.class);
+    }
+}
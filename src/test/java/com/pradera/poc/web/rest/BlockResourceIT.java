@@ -2,30 +2,44 @@ package com.pradera.poc.web.rest;
 
 import static com.pradera.poc.web.rest.TestUtil.sameInstant;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.pradera.poc.IntegrationTest;
 import com.pradera.poc.domain.Block;
-import com.pradera.poc.domain.Block;
+import com.pradera.poc.domain.Flow;
 import com.pradera.poc.domain.FlowBlock;
 import com.pradera.poc.domain.User;
 import com.pradera.poc.domain.enumeration.BlockType;
 import com.pradera.poc.repository.BlockRepository;
+import com.pradera.poc.service.BlockHasher;
+import com.pradera.poc.service.BlockQueryService;
 import com.pradera.poc.service.criteria.BlockCriteria;
+import com.pradera.poc.service.dto.BlockSummaryDTO;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -65,6 +79,12 @@ class BlockResourceIT {
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BlockQueryService blockQueryService;
+
     @Autowired
     private MockMvc restBlockMockMvc;
 
@@ -123,7 +143,9 @@ class BlockResourceIT {
         assertThat(testBlock.getType()).isEqualTo(DEFAULT_TYPE);
         assertThat(testBlock.getContent()).isEqualTo(DEFAULT_CONTENT);
         assertThat(testBlock.getCreatedDate()).isEqualTo(DEFAULT_CREATED_DATE);
-        assertThat(testBlock.getHash()).isEqualTo(DEFAULT_HASH);
+        assertThat(testBlock.getHash()).isEqualTo(BlockHasher.hash(DEFAULT_TYPE, DEFAULT_CONTENT));
+        assertThat(testBlock.getRootId()).isEqualTo(testBlock.getId());
+        assertThat(testBlock.getDepth()).isZero();
     }
 
     @Test
@@ -180,19 +202,23 @@ class BlockResourceIT {
 
     @Test
     @Transactional
-    void checkHashIsRequired() throws Exception {
-        int databaseSizeBeforeTest = blockRepository.findAll().size();
-        // set the field null
-        block.setHash(null);
-
-        // Create the Block, which fails.
+    void createBlockComputesHash() throws Exception {
+        // the hash of the client is ignored, and the content is normalized before it is hashed
+        block.content("Line\r\nCafe\u0301").hash(null);
 
         restBlockMockMvc
             .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(block)))
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isCreated());
+        block.hash(UPDATED_HASH);
+        restBlockMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(block)))
+            .andExpect(status().isCreated());
 
         List<Block> blockList = blockRepository.findAll();
-        assertThat(blockList).hasSize(databaseSizeBeforeTest);
+        for (Block testBlock : blockList.subList(blockList.size() - 2, blockList.size())) {
+            assertThat(testBlock.getContent()).isEqualTo("Line\nCaf\u00e9");
+            assertThat(testBlock.getHash()).isEqualTo(BlockHasher.hash(DEFAULT_TYPE, "Line\nCaf\u00e9"));
+        }
     }
 
     @Test
@@ -208,11 +234,264 @@ class BlockResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(block.getId().intValue())))
             .andExpect(jsonPath("$.[*].type").value(hasItem(DEFAULT_TYPE.toString())))
-            .andExpect(jsonPath("$.[*].content").value(hasItem(DEFAULT_CONTENT.toString())))
+            .andExpect(jsonPath("$.[*].excerpt").value(hasItem(DEFAULT_CONTENT.toString())))
+            .andExpect(jsonPath("$.[*].contentLength").value(hasItem(DEFAULT_CONTENT.length())))
             .andExpect(jsonPath("$.[*].createdDate").value(hasItem(sameInstant(DEFAULT_CREATED_DATE))))
             .andExpect(jsonPath("$.[*].hash").value(hasItem(DEFAULT_HASH)));
     }
 
+    @Test
+    @Transactional
+    void getAllBlocksReturnsAnExcerptOfTheContent() throws Exception {
+        // Initialize the database
+        String longContent = "A".repeat(BlockSummaryDTO.EXCERPT_LENGTH) + "B".repeat(50);
+        block.setContent(longContent);
+        blockRepository.saveAndFlush(block);
+        em.clear();
+
+        restBlockMockMvc
+            .perform(get(ENTITY_API_URL + "?id.equals=" + block.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].excerpt").value("A".repeat(BlockSummaryDTO.EXCERPT_LENGTH)))
+            .andExpect(jsonPath("$.[0].contentLength").value(longContent.length()))
+            .andExpect(jsonPath("$.[0].userLogin").value(block.getUser().getLogin()))
+            .andExpect(jsonPath("$.[0].content").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllBlocksUsesAFixedNumberOfStatements() throws Exception {
+        Block last = createRevisions(100);
+
+        long statementCount = countStatements(
+            () ->
+                restBlockMockMvc
+                    .perform(get(ENTITY_API_URL + "?size=100&sort=id,desc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(100))
+                    .andExpect(jsonPath("$.[0].id").value(last.getId().intValue()))
+                    .andExpect(jsonPath("$.[0].parentId").value(last.getParent().getId().intValue()))
+        );
+
+        // the page and the count
+        assertThat(statementCount).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @Transactional
+    void findByCriteriaFetchesParentAndUserWithTheBlocks() throws Exception {
+        createRevisions(100);
+
+        long statementCount = countStatements(
+            () -> {
+                Page<Block> page = blockQueryService.findByCriteria(new BlockCriteria(), PageRequest.of(0, 100, Sort.by("id")));
+                assertThat(page.getContent()).hasSize(100);
+                for (Block block : page.getContent()) {
+                    assertThat(block.getUser().getLogin()).isNotNull();
+                    if (block.getParent() != null) {
+                        assertThat(block.getParent().getHash()).isEqualTo(DEFAULT_HASH);
+                    }
+                }
+            }
+        );
+
+        // the page and the count
+        assertThat(statementCount).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @Transactional
+    void getBlocksByFlowIdIgnoresTheCursor() throws Exception {
+        Flow flow = FlowResourceIT.createEntity(em);
+        em.persist(flow);
+        blockRepository.saveAndFlush(block);
+        em.persist(new FlowBlock().flow(flow).block(block).blockOrder(FlowBlock.BLOCK_ORDER_GAP));
+        em.flush();
+
+        restBlockMockMvc
+            .perform(get(ENTITY_API_URL + "?flowId={flowId}&after={after}", flow.getId(), block.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(block.getId().intValue()))
+            .andExpect(jsonPath("$.[0].content").value(DEFAULT_CONTENT));
+    }
+
+    @Test
+    @Transactional
+    void getBlocksByFlowIdFetchesParentAndUserWithTheBlocks() throws Exception {
+        Flow flow = FlowResourceIT.createEntity(em);
+        em.persist(flow);
+        User user = block.getUser();
+        List<Block> revisions = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Block parent = createEntity(em).user(user);
+            em.persist(parent);
+            Block revision = createEntity(em).user(user).parent(parent);
+            em.persist(revision);
+            em.persist(new FlowBlock().flow(flow).block(revision).blockOrder(i * FlowBlock.BLOCK_ORDER_GAP));
+            revisions.add(revision);
+        }
+        em.flush();
+        em.clear();
+
+        long statementCount = countStatements(
+            () ->
+                restBlockMockMvc
+                    .perform(get(ENTITY_API_URL + "?flowId={flowId}", flow.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(3))
+                    .andExpect(jsonPath("$.[2].id").value(revisions.get(2).getId().intValue()))
+                    .andExpect(jsonPath("$.[2].content").value(DEFAULT_CONTENT))
+                    .andExpect(jsonPath("$.[2].parent.id").value(revisions.get(2).getParent().getId().intValue()))
+                    .andExpect(jsonPath("$.[2].user.login").value(user.getLogin()))
+        );
+
+        // the blocks, with their parents and users
+        assertThat(statementCount).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    void getAllBlocksAfterAnId() throws Exception {
+        Block third = createRevisions(3);
+        Block second = blockRepository.findById(third.getParent().getId()).orElseThrow();
+        Long firstId = second.getParent().getId();
+        String ids = firstId + "," + second.getId() + "," + third.getId();
+
+        restBlockMockMvc
+            .perform(get(ENTITY_API_URL + "?id.in=" + ids + "&after=&size=2&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString("after=" + second.getId())))
+            .andExpect(header().string("Link", endsWith("; rel=\"next\"")))
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue(), second.getId().intValue())));
+
+        restBlockMockMvc
+            .perform(get(ENTITY_API_URL + "?id.in=" + ids + "&after=" + second.getId() + "&size=2&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Link"))
+            .andExpect(jsonPath("$.[*].id").value(contains(firstId.intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllBlocksAfterACreatedDate() throws Exception {
+        Block first = createEntity(em).createdDate(UPDATED_CREATED_DATE);
+        Block second = createEntity(em);
+        Block third = createEntity(em);
+        blockRepository.saveAll(List.of(first, second, third));
+        em.flush();
+        String ids = first.getId() + "," + second.getId() + "," + third.getId();
+        String cursor = DEFAULT_CREATED_DATE.toInstant() + "," + second.getId();
+
+        // second and third were created at the same time, and are ordered by id
+        restBlockMockMvc
+            .perform(get(ENTITY_API_URL + "?id.in=" + ids + "&after=&size=1&sort=createdDate,asc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Link", containsString("after=" + cursor)))
+            .andExpect(jsonPath("$.[*].id").value(contains(second.getId().intValue())));
+
+        restBlockMockMvc
+            .perform(get(ENTITY_API_URL + "?id.in=" + ids + "&after=" + cursor + "&size=2&sort=createdDate,asc"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Link"))
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue(), first.getId().intValue())));
+
+        restBlockMockMvc
+            .perform(get(ENTITY_API_URL + "?after=" + second.getId() + "&sort=createdDate,asc"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.cursorinvalid"));
+    }
+
+    @Test
+    @Transactional
+    void getBlockHistory() throws Exception {
+        Block last = createRevisions(5);
+        List<Long> history = new ArrayList<>();
+        for (Block version = last; version != null; version = blockRepository.findById(version.getId()).orElseThrow().getParent()) {
+            history.add(version.getId());
+        }
+        em.clear();
+
+        long statementCount = countStatements(
+            () ->
+                restBlockMockMvc
+                    .perform(get(ENTITY_API_URL_ID + "/history?size=3", last.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Link", containsString("after=" + history.get(2))))
+                    .andExpect(
+                        jsonPath("$.[*].id").value(contains(history.get(0).intValue(), history.get(1).intValue(), history.get(2).intValue()))
+                    )
+                    .andExpect(jsonPath("$.[0].parentId").value(history.get(1).intValue()))
+                    .andExpect(jsonPath("$.[0].excerpt").value(DEFAULT_CONTENT))
+                    .andExpect(jsonPath("$.[0].createdDate").value(sameInstant(DEFAULT_CREATED_DATE)))
+        );
+        assertThat(statementCount).isEqualTo(1);
+
+        restBlockMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/history?size=3&after=" + history.get(2), last.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Link"))
+            .andExpect(jsonPath("$.[*].id").value(contains(history.get(3).intValue(), history.get(4).intValue())))
+            .andExpect(jsonPath("$.[1].parentId").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getBlockHistoryAfterAnotherVersion() throws Exception {
+        Block last = createRevisions(3);
+        Block otherLast = createRevisions(3);
+
+        restBlockMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/history?after=" + otherLast.getParent().getId(), last.getId()))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.cursorinvalid"));
+
+        // a newer version is not in the history either
+        restBlockMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/history?after=" + last.getId(), last.getParent().getId()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingBlockHistory() throws Exception {
+        restBlockMockMvc.perform(get(ENTITY_API_URL_ID + "/history", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    /**
+     * Creates blocks of different users, each one a revision of the previous one.
+     */
+    private Block createRevisions(int count) {
+        Block parent = null;
+        for (int i = 0; i < count; i++) {
+            Block revision = createEntity(em).parent(parent);
+            em.persist(revision);
+            parent = revision;
+        }
+        em.flush();
+        em.clear();
+        return parent;
+    }
+
+    private long countStatements(ThrowingRunnable runnable) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            runnable.run();
+            return statistics.getPrepareStatementCount();
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
     @Test
     @Transactional
     void getBlock() throws Exception {
@@ -231,6 +510,44 @@ class BlockResourceIT {
             .andExpect(jsonPath("$.hash").value(DEFAULT_HASH));
     }
 
+    @Test
+    @Transactional
+    void getBlockWithCompressedContent() throws Exception {
+        String content = "All work and no play makes Jack a dull boy.\n".repeat(100);
+        block.setContent(content);
+        blockRepository.saveAndFlush(block);
+        em.clear();
+
+        byte[] column = (byte[]) em
+            .createNativeQuery("SELECT content FROM block WHERE id = :id")
+            .setParameter("id", block.getId())
+            .getSingleResult();
+        assertThat(column.length).isLessThan(content.length() / 10);
+
+        restBlockMockMvc
+            .perform(get(ENTITY_API_URL_ID, block.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content").value(content))
+            .andExpect(jsonPath("$.contentLength").doesNotExist())
+            .andExpect(jsonPath("$.excerpt").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getBlockLoadsTheLazyContent() throws Exception {
+        // Initialize the database
+        blockRepository.saveAndFlush(block);
+        em.clear();
+
+        assertThat(Hibernate.isPropertyInitialized(blockRepository.findById(block.getId()).orElseThrow(), "content")).isFalse();
+        em.clear();
+
+        restBlockMockMvc
+            .perform(get(ENTITY_API_URL_ID, block.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content").value(DEFAULT_CONTENT));
+    }
+
     @Test
     @Transactional
     void getBlocksByIdFiltering() throws Exception {
@@ -569,7 +886,8 @@ class BlockResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(block.getId().intValue())))
             .andExpect(jsonPath("$.[*].type").value(hasItem(DEFAULT_TYPE.toString())))
-            .andExpect(jsonPath("$.[*].content").value(hasItem(DEFAULT_CONTENT.toString())))
+            .andExpect(jsonPath("$.[*].excerpt").value(hasItem(DEFAULT_CONTENT.toString())))
+            .andExpect(jsonPath("$.[*].contentLength").value(hasItem(DEFAULT_CONTENT.length())))
             .andExpect(jsonPath("$.[*].createdDate").value(hasItem(sameInstant(DEFAULT_CREATED_DATE))))
             .andExpect(jsonPath("$.[*].hash").value(hasItem(DEFAULT_HASH)));
 
@@ -636,7 +954,7 @@ class BlockResourceIT {
         assertThat(testBlock.getType()).isEqualTo(UPDATED_TYPE);
         assertThat(testBlock.getContent()).isEqualTo(UPDATED_CONTENT);
         assertThat(testBlock.getCreatedDate()).isEqualTo(UPDATED_CREATED_DATE);
-        assertThat(testBlock.getHash()).isEqualTo(UPDATED_HASH);
+        assertThat(testBlock.getHash()).isEqualTo(BlockHasher.hash(UPDATED_TYPE, UPDATED_CONTENT));
     }
 
     @Test
@@ -695,6 +1013,38 @@ class BlockResourceIT {
         assertThat(blockList).hasSize(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    @Transactional
+    void putBlockWithAnotherParent() throws Exception {
+        Block revision = createRevisions(2);
+        Block otherBlock = createRevisions(1);
+        Long parentId = revision.getParent().getId();
+
+        Block updatedBlock = new Block()
+            .id(revision.getId())
+            .type(DEFAULT_TYPE)
+            .content(UPDATED_CONTENT)
+            .createdDate(DEFAULT_CREATED_DATE)
+            .hash(DEFAULT_HASH)
+            .user(em.find(User.class, block.getUser().getId()))
+            .parent(new Block().id(otherBlock.getId()));
+
+        // re-parenting a block would leave the lineage of its own revisions stale
+        restBlockMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedBlock.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedBlock))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.parentchanged"));
+
+        em.clear();
+        Block testBlock = blockRepository.findOneWithContent(revision.getId()).get();
+        assertThat(testBlock.getParent().getId()).isEqualTo(parentId);
+        assertThat(testBlock.getContent()).isEqualTo(DEFAULT_CONTENT);
+    }
+
     @Test
     @Transactional
     void partialUpdateBlockWithPatch() throws Exception {
@@ -756,7 +1106,7 @@ class BlockResourceIT {
         assertThat(testBlock.getType()).isEqualTo(UPDATED_TYPE);
         assertThat(testBlock.getContent()).isEqualTo(UPDATED_CONTENT);
         assertThat(testBlock.getCreatedDate()).isEqualTo(UPDATED_CREATED_DATE);
-        assertThat(testBlock.getHash()).isEqualTo(UPDATED_HASH);
+        assertThat(testBlock.getHash()).isEqualTo(BlockHasher.hash(UPDATED_TYPE, UPDATED_CONTENT));
     }
 
     @Test
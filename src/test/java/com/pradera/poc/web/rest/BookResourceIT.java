@@ -1,6 +1,8 @@
 package com.pradera.poc.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -143,6 +145,31 @@ class BookResourceIT {
             .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)));
     }
 
+    @Test
+    @Transactional
+    void getAllBooksAfterAnId() throws Exception {
+        // Initialize the database
+        Book first = bookRepository.saveAndFlush(createEntity(em));
+        Book second = bookRepository.saveAndFlush(createEntity(em));
+        Book third = bookRepository.saveAndFlush(createEntity(em));
+        String ids = first.getId() + "," + second.getId() + "," + third.getId();
+
+        // Get the first page, without counting the books
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?id.in=" + ids + "&after=&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString("after=" + second.getId())))
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue(), second.getId().intValue())));
+
+        // Get the last page
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?id.in=" + ids + "&after=" + second.getId() + "&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Link"))
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue())));
+    }
+
     @Test
     @Transactional
     void getBook() throws Exception {
@@ -1,6 +1,8 @@
 package com.pradera.poc.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -146,6 +148,31 @@ class FlowBlockResourceIT {
             .andExpect(jsonPath("$.[*].blockOrder").value(hasItem(DEFAULT_BLOCK_ORDER.intValue())));
     }
 
+    @Test
+    @Transactional
+    void getAllFlowBlocksAfterAnId() throws Exception {
+        // Initialize the database
+        FlowBlock first = flowBlockRepository.saveAndFlush(createEntity(em));
+        FlowBlock second = flowBlockRepository.saveAndFlush(createEntity(em));
+        FlowBlock third = flowBlockRepository.saveAndFlush(createEntity(em));
+        String ids = first.getId() + "," + second.getId() + "," + third.getId();
+
+        // Get the first page, without counting the flowBlocks
+        restFlowBlockMockMvc
+            .perform(get(ENTITY_API_URL + "?id.in=" + ids + "&after=&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString("after=" + second.getId())))
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue(), second.getId().intValue())));
+
+        // Get the last page
+        restFlowBlockMockMvc
+            .perform(get(ENTITY_API_URL + "?id.in=" + ids + "&after=" + second.getId() + "&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Link"))
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue())));
+    }
+
     @Test
     @Transactional
     void getFlowBlock() throws Exception {
@@ -1,29 +1,44 @@
 package com.pradera.poc.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.pradera.poc.IntegrationTest;
+import com.pradera.poc.config.ApplicationProperties;
+import com.pradera.poc.domain.Block;
 import com.pradera.poc.domain.Book;
 import com.pradera.poc.domain.Flow;
 import com.pradera.poc.domain.FlowBlock;
 import com.pradera.poc.domain.User;
+import com.pradera.poc.domain.enumeration.BlockType;
 import com.pradera.poc.repository.FlowRepository;
+import com.pradera.poc.service.FlowBlockService;
+import com.pradera.poc.service.FlowDocumentCache;
 import com.pradera.poc.service.criteria.FlowCriteria;
+import com.pradera.poc.service.dto.RenderedDocumentDTO;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Integration tests for the {@link FlowResource} REST controller.
@@ -48,9 +63,24 @@ class FlowResourceIT {
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FlowBlockService flowBlockService;
+
+    @Autowired
+    private FlowDocumentCache flowDocumentCache;
+
     @Autowired
     private MockMvc restFlowMockMvc;
 
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     private Flow flow;
 
     /**
@@ -146,6 +176,31 @@ class FlowResourceIT {
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)));
     }
 
+    @Test
+    @Transactional
+    void getAllFlowsAfterAnId() throws Exception {
+        // Initialize the database
+        Flow first = flowRepository.saveAndFlush(createEntity(em));
+        Flow second = flowRepository.saveAndFlush(createEntity(em));
+        Flow third = flowRepository.saveAndFlush(createEntity(em));
+        String ids = first.getId() + "," + second.getId() + "," + third.getId();
+
+        // Get the first page, without counting the flows
+        restFlowMockMvc
+            .perform(get(ENTITY_API_URL + "?id.in=" + ids + "&after=&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString("after=" + second.getId())))
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue(), second.getId().intValue())));
+
+        // Get the last page
+        restFlowMockMvc
+            .perform(get(ENTITY_API_URL + "?id.in=" + ids + "&after=" + second.getId() + "&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Link"))
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue())));
+    }
+
     @Test
     @Transactional
     void getFlow() throws Exception {
@@ -352,6 +407,137 @@ class FlowResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void getFlowDocument() throws Exception {
+        // Initialize the database
+        flowRepository.saveAndFlush(flow);
+        Block title = BlockResourceIT.createEntity(em).type(BlockType.TITLE).content("Chapter 1");
+        em.persist(title);
+        Block paragraph = BlockResourceIT.createEntity(em).type(BlockType.PARAGRAPH).content("");
+        em.persist(paragraph);
+        // inserted in reverse order, the document follows blockOrder
+        em.persist(new FlowBlock().flow(flow).block(paragraph).blockOrder(2 * FlowBlock.BLOCK_ORDER_GAP));
+        em.persist(new FlowBlock().flow(flow).block(title).blockOrder(FlowBlock.BLOCK_ORDER_GAP));
+        em.flush();
+
+        // Get the document
+        restFlowMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/document", flow.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.type").value("doc"))
+            .andExpect(jsonPath("$.content.length()").value(2))
+            .andExpect(jsonPath("$.content[0].type").value("heading"))
+            .andExpect(jsonPath("$.content[0].attrs.blockId").value(title.getId().intValue()))
+            .andExpect(jsonPath("$.content[0].attrs.level").value(1))
+            .andExpect(jsonPath("$.content[0].content[0].text").value("Chapter 1"))
+            .andExpect(jsonPath("$.content[1].type").value("paragraph"))
+            .andExpect(jsonPath("$.content[1].attrs.blockId").value(paragraph.getId().intValue()))
+            .andExpect(jsonPath("$.content[1].content").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getFlowDocumentWithETag() throws Exception {
+        // Initialize the database
+        flowRepository.saveAndFlush(flow);
+        Block title = BlockResourceIT.createEntity(em).type(BlockType.TITLE).content("Chapter 1");
+        em.persist(title);
+        Block paragraph = BlockResourceIT.createEntity(em).type(BlockType.PARAGRAPH).content("Once upon a time");
+        em.persist(paragraph);
+        FlowBlock titleFlowBlock = new FlowBlock().flow(flow).block(title).blockOrder(FlowBlock.BLOCK_ORDER_GAP);
+        em.persist(titleFlowBlock);
+        em.persist(new FlowBlock().flow(flow).block(paragraph).blockOrder(2 * FlowBlock.BLOCK_ORDER_GAP));
+        em.flush();
+
+        String eTag = restFlowMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/document", flow.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // the cached document is not read from the database again
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            restFlowMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/document", flow.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+            assertThat(statistics.getPrepareStatementCount()).isZero();
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+
+        // moving a block changes the document
+        flowBlockService.moveAfter(titleFlowBlock.getId(), null);
+        flowBlockService.delete(titleFlowBlock.getId());
+        em.flush();
+
+        restFlowMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/document", flow.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+            .andExpect(jsonPath("$.content.length()").value(1))
+            .andExpect(jsonPath("$.content[0].content[0].text").value("Once upon a time"));
+    }
+
+    @Test
+    @Transactional
+    void getLargeFlowDocumentIsStreamed() throws Exception {
+        // Initialize the database
+        flowRepository.saveAndFlush(flow);
+        Block paragraph = BlockResourceIT.createEntity(em).type(BlockType.PARAGRAPH).content("Once upon a time");
+        em.persist(paragraph);
+        em.persist(new FlowBlock().flow(flow).block(paragraph).blockOrder(FlowBlock.BLOCK_ORDER_GAP));
+        em.flush();
+
+        ApplicationProperties.FlowDocument flowDocument = applicationProperties.getFlowDocument();
+        DataSize maxCachedSize = flowDocument.getMaxCachedSize();
+        flowDocument.setMaxCachedSize(DataSize.ofBytes(16));
+        try {
+            String eTag = restFlowMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/document", flow.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.content[0].content[0].text").value("Once upon a time"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+            // only the entity tag of the document is cached
+            RenderedDocumentDTO cached = cacheManager
+                .getCache(FlowDocumentCache.DOCUMENTS_CACHE)
+                .get(flow.getId(), RenderedDocumentDTO.class);
+            assertThat(cached.getJson()).isNull();
+            assertThat(cached.getETag()).isEqualTo(eTag);
+
+            restFlowMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/document", flow.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+            restFlowMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/document", flow.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(jsonPath("$.content[0].content[0].text").value("Once upon a time"));
+        } finally {
+            flowDocument.setMaxCachedSize(maxCachedSize);
+            flowDocumentCache.evict(flow.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingFlowDocument() throws Exception {
+        restFlowMockMvc.perform(get(ENTITY_API_URL_ID + "/document", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void getNonExistingFlow() throws Exception {
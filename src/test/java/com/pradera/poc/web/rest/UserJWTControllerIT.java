@@ -1,5 +1,6 @@
 package com.pradera.poc.web.rest;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.emptyString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
@@ -13,6 +14,7 @@ import com.pradera.poc.IntegrationTest;
 import com.pradera.poc.domain.User;
 import com.pradera.poc.repository.UserRepository;
 import com.pradera.poc.web.rest.vm.LoginVM;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -37,6 +39,9 @@ class UserJWTControllerIT {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     @Transactional
     void testAuthorize() throws Exception {
@@ -89,10 +94,22 @@ class UserJWTControllerIT {
         LoginVM login = new LoginVM();
         login.setUsername("wrong-user");
         login.setPassword("wrong password");
+        long failures = authenticationCount("BadCredentialsException");
         mockMvc
             .perform(post("/api/authenticate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(login)))
             .andExpect(status().isUnauthorized())
             .andExpect(jsonPath("$.id_token").doesNotExist())
             .andExpect(header().doesNotExist("Authorization"));
+        assertThat(authenticationCount("BadCredentialsException")).isEqualTo(failures + 1);
+    }
+
+    private long authenticationCount(String outcome) {
+        return meterRegistry
+            .find(UserJWTController.AUTHENTICATION_METRIC_NAME)
+            .tag("outcome", outcome)
+            .timers()
+            .stream()
+            .mapToLong(timer -> timer.count())
+            .sum();
     }
 }
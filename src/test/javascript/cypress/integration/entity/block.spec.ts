@@ -96,8 +96,6 @@ describe('Block e2e test', () => {
     cy.get(`[data-cy="createdDate"]`).type('2021-03-30T04:41').invoke('val').should('equal', '2021-03-30T04:41');
 
 
-    cy.get(`[data-cy="hash"]`).type('silver tan auxiliary', { force: true }).invoke('val').should('match', new RegExp('silver tan auxiliary'));
-
     cy.setFieldSelectToLastOfEntity('parent');
 
     cy.setFieldSelectToLastOfEntity('user');